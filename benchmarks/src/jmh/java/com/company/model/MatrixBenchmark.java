@@ -0,0 +1,67 @@
+package com.company.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+Matrix operations of one layer of 784-32-16-10 network (see Main): weights (layer size x previous layer size)
+are multiplied by previousLayerSize x batchSize outputs of previous layer, then biases are added and sigmoid is applied.
+Methods without Into allocate their results, as training does, methods with Into write to preallocated matrices
+ */
+@State(Scope.Thread)
+public class MatrixBenchmark {
+    // Layer size x previous layer size
+    @Param({"32x784", "16x32", "10x16"})
+    public String weightsShape;
+
+    // 1 - one test, 128 - default batch
+    @Param({"1", "128"})
+    public int batchSize;
+
+    private Matrix weights;
+    private Matrix previousLayerOutputs;
+    private Matrix biases;
+    private Matrix layerInputs;
+    private Matrix layerOutputs;
+
+    @Setup
+    public void setUp() {
+        String[] sizes = weightsShape.split("x");
+        int layerSize = Integer.parseInt(sizes[0]);
+        int previousLayerSize = Integer.parseInt(sizes[1]);
+
+        weights = new RandomMatrix(layerSize, previousLayerSize);
+        previousLayerOutputs = new RandomMatrix(previousLayerSize, batchSize);
+        biases = new RandomMatrix(layerSize, batchSize);
+        layerInputs = weights.multiply(previousLayerOutputs);
+        layerOutputs = new Matrix(layerSize, batchSize);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return weights.multiply(previousLayerOutputs);
+    }
+
+    @Benchmark
+    public Matrix multiplyInto() {
+        return weights.multiplyInto(previousLayerOutputs, layerInputs);
+    }
+
+    @Benchmark
+    public Matrix plus() {
+        return layerInputs.plus(biases);
+    }
+
+    @Benchmark
+    public Matrix sigmoidOf() {
+        return Matrix.sigmoidOf(layerInputs);
+    }
+
+    @Benchmark
+    public Matrix sigmoidOfInto() {
+        return Matrix.sigmoidOf(layerInputs, layerOutputs);
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.model.network;
+
+import com.company.model.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// Forward pass of 784-32-16-10 network (see Main) for one test and for batch of tests
+@State(Scope.Thread)
+public class NeuralNetworkBenchmark {
+    @Param({"128"})
+    public int batchSize;
+
+    private NeuralNetwork network;
+    private double[] input;
+    private Matrix inputs;
+
+    @Setup
+    public void setUp() {
+        network = new NeuralNetwork(784, 10, new int[] {32, 16});
+        Random random = new Random(1);
+
+        input = new double[network.inputSize];
+        inputs = new Matrix(batchSize, network.inputSize);
+
+        for (int i = 0; i < input.length; ++i) {
+            input[i] = random.nextDouble();
+        }
+
+        for (int i = 0; i < inputs.values.length; ++i) {
+            inputs.values[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double[] calcOutputByTest() {
+        return network.calcOutputBy(input);
+    }
+
+    // One operation is whole batch
+    @Benchmark
+    public Matrix calcOutputByBatch() {
+        return network.calcOutputBy(inputs);
+    }
+}
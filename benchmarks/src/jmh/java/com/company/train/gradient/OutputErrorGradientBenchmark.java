@@ -0,0 +1,44 @@
+package com.company.train.gradient;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// Gradients of output error by parameters of 784-32-16-10 network (see Main) for one test
+@State(Scope.Thread)
+public class OutputErrorGradientBenchmark {
+    private NeuralNetwork network;
+    private TestSet.Test test;
+
+    @Setup
+    public void setUp() {
+        network = new NeuralNetwork(784, 10, new int[] {32, 16});
+        Random random = new Random(1);
+
+        double[] input = new double[network.inputSize];
+        double[] correctOutput = new double[network.outputSize];
+
+        for (int i = 0; i < input.length; ++i) {
+            input[i] = random.nextDouble();
+        }
+
+        correctOutput[random.nextInt(correctOutput.length)] = 1;
+        test = new TestSet.Test(input, correctOutput);
+    }
+
+    @Benchmark
+    public Matrix weightsGradient() {
+        return new WeightsOutputErrorGradient(network, test).getOutputErrorGradient();
+    }
+
+    @Benchmark
+    public Matrix biasesGradient() {
+        return new BiasesOutputErrorGradient(network, test).getOutputErrorGradient();
+    }
+}
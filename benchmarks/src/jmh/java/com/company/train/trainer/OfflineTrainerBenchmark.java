@@ -0,0 +1,76 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.BatchPrefetcher;
+import com.company.train.TestSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+One batch of offline training of 784-32-16-10 network (see Main) on synthetic tests: parallel gradients calculation,
+reduction of threads sums and parameters tweak. Batch is packed once, so packing isn't measured
+ */
+@State(Scope.Thread)
+public class OfflineTrainerBenchmark {
+    @Param({"128"})
+    public int batchSize;
+
+    private ForkJoinPool pool;
+    private OfflineTrainer trainer;
+    private NeuralNetwork network;
+    private BatchPrefetcher prefetcher;
+    private BatchPrefetcher.Batch batch;
+
+    @Setup
+    public void setUp() {
+        network = new NeuralNetwork(784, 10, new int[] {32, 16});
+        Random random = new Random(1);
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int t = 0; t < batchSize; ++t) {
+            double[] input = new double[network.inputSize];
+            double[] correctOutput = new double[network.outputSize];
+
+            for (int i = 0; i < input.length; ++i) {
+                input[i] = random.nextDouble();
+            }
+
+            correctOutput[random.nextInt(correctOutput.length)] = 1;
+            tests.add(new TestSet.Test(input, correctOutput));
+        }
+
+        TestSet testSet = new TestSet(tests);
+        TrainerOptions options = new TrainerOptions(0.4, 0.2, 1, batchSize, 1, 3);
+        pool = new ForkJoinPool(options.parallelism());
+        trainer = new OfflineTrainer(network, testSet, options, pool);
+
+        // Epoch defines increments of previous batch, which trainBatch uses
+        network = trainer.trainEpoch(network);
+
+        prefetcher = new BatchPrefetcher(testSet, batchSize, 1, network.inputSize, network.outputSize);
+        prefetcher.startPass();
+        batch = prefetcher.nextBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        prefetcher.close();
+        trainer.close();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public NeuralNetwork trainBatch() {
+        trainer.trainBatch(network, batch);
+        return network;
+    }
+}
@@ -3,23 +3,22 @@ package com.company;
 import com.company.model.Matrix;
 import com.company.model.network.NeuralNetwork;
 import com.company.train.TestFunctionsEnum;
-import com.company.train.TestSet;
-import com.company.train.trainer.OfflineTrainer;
-import com.company.train.trainer.Trainer;
-import com.company.train.trainer.TrainerOptions;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Scanner;
 
 public class Main {
-    public static void main(String[] args) {
+    // args[0] - path of binary network file (see NeuralNetwork.save). Without it network parameters are read from console
+    public static void main(String[] args) throws IOException {
         TestFunctionsEnum testFunction = TestFunctionsEnum.ONE_QUANTITY;
-        NeuralNetwork neuralNetwork = new NeuralNetwork(784, 10, new int[] {32, 16}, "e");
-        TrainerOptions trainerOptions = new TrainerOptions(0.4, 0.2, 10000, 128, 1, 3);
-
-        TestSet testSet = new TestSet(neuralNetwork.inputSize, testFunction.answerFunction);
-        Trainer offlineTrainer = new OfflineTrainer(neuralNetwork, testSet, trainerOptions);
+        NeuralNetwork neuralNetwork = args.length > 0 ? NeuralNetwork.load(args[0]) : new NeuralNetwork(784, 10, new int[] {32, 16}, "e");
 
+        // Test set and trainer are made only for training: they read dataset file and start threads
+//        TrainerOptions trainerOptions = new TrainerOptions(0.4, 0.2, 10000, 128, 1, 3);
+//        TestSet testSet = new TestSet(neuralNetwork.inputSize, testFunction.answerFunction);
+//        OfflineTrainer offlineTrainer = new OfflineTrainer(neuralNetwork, testSet, trainerOptions);
+//
 //        neuralNetwork = offlineTrainer.trainNetwork();
 //
 //        double[] neuralNetworkErrors = offlineTrainer.getLastTrainErrorsData();
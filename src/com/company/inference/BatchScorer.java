@@ -0,0 +1,132 @@
+package com.company.inference;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestsFileReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+Non-interactive scoring of tests file (digits images CSV or binary test set, see TestsFileReader):
+
+  this thread:    chunk of raw tests -> scoring task, at most 2 * threadsCount tasks are in flight
+  scoring thread: inputs are parsed to matrix -> network.calcOutputBy -> text of predictions of chunk
+  this thread:    texts of chunks are written in order of chunks by buffered writer
+
+Every output line is class of output (position of maximal value), and with writesProbabilities
+output values after it, all separated by commas. Lines are in order of tests in input file.
+
+Run: BatchScorer <network file> <input file> <output file> [--probabilities]
+ */
+public class BatchScorer {
+    public static final int DEFAULT_CHUNK_TESTS_COUNT = 1024;
+
+    private final NeuralNetwork network;
+    private final int chunkTestsCount;
+    private final int threadsCount;
+    private final boolean writesProbabilities;
+
+    // Throws exception if chunkTestsCount or threadsCount isn't positive
+    public BatchScorer(NeuralNetwork network, int chunkTestsCount, int threadsCount, boolean writesProbabilities) {
+        if (chunkTestsCount <= 0 || threadsCount <= 0) {
+            throw new IllegalArgumentException("Bad argument for batch scorer. Chunk size and threads count must be positive.");
+        }
+
+        this.network = network;
+        this.chunkTestsCount = chunkTestsCount;
+        this.threadsCount = threadsCount;
+        this.writesProbabilities = writesProbabilities;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: BatchScorer <network file> <input file> <output file> [--probabilities]");
+            return;
+        }
+
+        boolean writesProbabilities = args.length > 3 && args[3].equals("--probabilities");
+        BatchScorer scorer = new BatchScorer(NeuralNetwork.load(args[0]), DEFAULT_CHUNK_TESTS_COUNT, Runtime.getRuntime().availableProcessors(), writesProbabilities);
+
+        long startTime = System.nanoTime();
+        long testsCount = scorer.score(args[1], args[2]);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.printf("Scored %d tests in %.2f s, %.0f tests/s%n", testsCount, seconds, testsCount / seconds);
+    }
+
+    // Writes predictions for every test of input file to output file, which is replaced if it exists. Returns tests quantity
+    // Throws exception if files can't be read or written, or tests inputs don't match network input size
+    public long score(String inputPath, String outputPath) throws IOException {
+        long testsCount = 0;
+
+        try (TestsFileReader reader = TestsFileReader.open(inputPath);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Path.of(outputPath)), StandardCharsets.US_ASCII), 1 << 16);
+             ExecutorService scoringThreads = Executors.newFixedThreadPool(threadsCount)) {
+            if (reader.getInputSize() != 0 && reader.getInputSize() != network.inputSize) {
+                throw new IOException("Tests of " + inputPath + " have " + reader.getInputSize() + " inputs, network has " + network.inputSize + ".");
+            }
+
+            // Chunks, which are scored now, in order of file. Their quantity is bounded, so memory doesn't depend on file size
+            Queue<CompletableFuture<String>> scoredChunks = new ArrayDeque<>();
+
+            for (TestsFileReader.Chunk chunk = reader.readChunk(chunkTestsCount); chunk != null; chunk = reader.readChunk(chunkTestsCount)) {
+                TestsFileReader.Chunk scoredChunk = chunk;
+                scoredChunks.add(CompletableFuture.supplyAsync(() -> score(scoredChunk), scoringThreads));
+                testsCount += chunk.size();
+
+                if (scoredChunks.size() >= 2 * threadsCount) {
+                    writer.write(scoredChunks.remove().join());
+                }
+            }
+
+            while (!scoredChunks.isEmpty()) {
+                writer.write(scoredChunks.remove().join());
+            }
+        }
+
+        return testsCount;
+    }
+
+    private String score(TestsFileReader.Chunk chunk) {
+        Matrix inputs = new Matrix(chunk.size(), network.inputSize);
+        chunk.parseInputs(inputs);
+
+        Matrix outputs = network.calcOutputBy(inputs);
+        StringBuilder text = new StringBuilder(chunk.size() * (writesProbabilities ? 24 * network.outputSize : 4));
+
+        for (int i = 0; i < outputs.N; ++i) {
+            int rowStart = outputs.offset + i * outputs.stride;
+            int maxIndex = 0;
+
+            for (int k = 1; k < outputs.M; ++k) {
+                if (outputs.values[rowStart + k] > outputs.values[rowStart + maxIndex]) {
+                    maxIndex = k;
+                }
+            }
+
+            // One value output is probability of class 1
+            text.append(outputs.M == 1 ? (outputs.values[rowStart] >= 0.5 ? 1 : 0) : maxIndex);
+
+            if (writesProbabilities) {
+                for (int k = 0; k < outputs.M; ++k) {
+                    text.append(',').append(outputs.values[rowStart + k]);
+                }
+            }
+
+            text.append('\n');
+        }
+
+        return text.toString();
+    }
+}
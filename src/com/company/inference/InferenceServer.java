@@ -0,0 +1,168 @@
+package com.company.inference;
+
+import com.company.model.network.NeuralNetwork;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+HTTP server of network outputs on local address. Every request is handled by its own virtual thread,
+which waits for output of its micro-batch (see MicroBatcher):
+
+  POST /predict   body: input values separated by commas     response 200: output values separated by commas
+                  400 - input can't be parsed or has wrong size, 503 - requests queue is full or server is closed,
+                  500 - output calculation failed
+
+Run: InferenceServer <network file> [port] [max batch size] [max wait in microseconds]
+ */
+public class InferenceServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    public static final long DEFAULT_MAX_WAIT_MICROS = 1000;
+
+    // Requests, which may wait for batches, per place in batch
+    private static final int QUEUE_BATCHES_COUNT = 64;
+
+    private final int inputSize;
+    private final MicroBatcher batcher;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+
+    // port - 0 for any free port (see getPort)
+    public InferenceServer(NeuralNetwork network, int port, int maxBatchSize, long maxWaitMicros) throws IOException {
+        inputSize = network.inputSize;
+        batcher = new MicroBatcher(network, maxBatchSize, maxWaitMicros * 1000, maxBatchSize * QUEUE_BATCHES_COUNT);
+        handlers = Executors.newVirtualThreadPerTaskExecutor();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/predict", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: InferenceServer <network file> [port] [max batch size] [max wait in microseconds]");
+            return;
+        }
+
+        NeuralNetwork network = NeuralNetwork.load(args[0]);
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int maxBatchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_BATCH_SIZE;
+        long maxWaitMicros = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_WAIT_MICROS;
+
+        InferenceServer server = new InferenceServer(network, port, maxBatchSize, maxWaitMicros);
+        System.out.println("Inference server listens on port " + server.getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public MicroBatcher getBatcher() {
+        return batcher;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        batcher.close();
+        handlers.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "Only POST is supported.");
+                return;
+            }
+
+            double[] input;
+
+            try (InputStream body = exchange.getRequestBody()) {
+                input = parseValues(new String(body.readAllBytes(), StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "Input values can't be parsed.");
+                return;
+            }
+
+            if (input.length != inputSize) {
+                respond(exchange, 400, "Input must have " + inputSize + " values.");
+                return;
+            }
+
+            double[] output;
+
+            try {
+                output = batcher.submit(input).get();
+            } catch (ExecutionException e) {
+                // Only rejected requests may be retried, other failures are errors of server
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    respond(exchange, 503, e.getCause().getMessage());
+                } else {
+                    respond(exchange, 500, "Output calculation failed.");
+                }
+
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Request is interrupted.");
+                return;
+            }
+
+            respond(exchange, 200, formatValues(output));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.sendResponseHeaders(code, bytes.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    // Values separated by commas, spaces around them are ignored
+    // Throws exception if some value isn't number
+    static double[] parseValues(String text) {
+        String trimmedText = text.trim();
+
+        if (trimmedText.isEmpty()) {
+            return new double[0];
+        }
+
+        String[] parts = trimmedText.split(",");
+        double[] values = new double[parts.length];
+
+        for (int i = 0; i < parts.length; ++i) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+
+        return values;
+    }
+
+    static String formatValues(double[] values) {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0) {
+                text.append(',');
+            }
+
+            text.append(values[i]);
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.company.inference;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Load generator for InferenceServer: clientsCount virtual threads send requestsCount requests with random inputs in total,
+every client sends its next request, when response to previous one comes (closed loop).
+Latencies of successful requests are sorted, so percentiles are exact.
+
+Run: LoadGenerator <port> <input size> [clients count] [requests count]
+ */
+public class LoadGenerator {
+    public static final int DEFAULT_CLIENTS_COUNT = 64;
+    public static final int DEFAULT_REQUESTS_COUNT = 20000;
+
+    // Results of one run, latencies are in nanoseconds
+    public record Result(int requestsCount, int failedRequestsCount, long durationNanos, long[] sortedLatencies) {
+        public double getRequestsPerSecond() {
+            return requestsCount * 1e9 / durationNanos;
+        }
+
+        // Latency, which percentile part of successful requests don't exceed, 0 if there are no successful requests
+        public long getLatencyPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+
+            int index = (int)Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d failed) in %.2f s, %.0f requests/s, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    requestsCount, failedRequestsCount, durationNanos / 1e9, getRequestsPerSecond(),
+                    getLatencyPercentile(50) / 1e6, getLatencyPercentile(99) / 1e6, getLatencyPercentile(100) / 1e6);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: LoadGenerator <port> <input size> [clients count] [requests count]");
+            return;
+        }
+
+        int port = Integer.parseInt(args[0]);
+        int inputSize = Integer.parseInt(args[1]);
+        int clientsCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CLIENTS_COUNT;
+        int requestsCount = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_REQUESTS_COUNT;
+
+        System.out.println(run(port, inputSize, clientsCount, requestsCount));
+    }
+
+    // Sends requests to server on local port and waits for all responses
+    public static Result run(int port, int inputSize, int clientsCount, int requestsCount) {
+        URI uri = URI.create("http://127.0.0.1:" + port + "/predict");
+        AtomicInteger nextRequestIndex = new AtomicInteger();
+        AtomicInteger failedRequestsCount = new AtomicInteger();
+        long[] latencies = new long[requestsCount];
+        Arrays.fill(latencies, -1);
+
+        long startTime = System.nanoTime();
+
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientsCount; ++c) {
+                clients.execute(() -> {
+                    Random random = new Random();
+                    double[] input = new double[inputSize];
+
+                    for (int r = nextRequestIndex.getAndIncrement(); r < requestsCount; r = nextRequestIndex.getAndIncrement()) {
+                        for (int k = 0; k < inputSize; ++k) {
+                            input[k] = random.nextDouble();
+                        }
+
+                        HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(InferenceServer.formatValues(input))).build();
+                        long requestStartTime = System.nanoTime();
+
+                        try {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+                            if (response.statusCode() == 200) {
+                                latencies[r] = System.nanoTime() - requestStartTime;
+                            } else {
+                                failedRequestsCount.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failedRequestsCount.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+
+        long durationNanos = System.nanoTime() - startTime;
+        long[] sortedLatencies = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+
+        return new Result(requestsCount, failedRequestsCount.get(), durationNanos, sortedLatencies);
+    }
+}
@@ -0,0 +1,183 @@
+package com.company.inference;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Coalesces concurrent requests into batches, which network calculates by one batched forward pass:
+
+  request threads: input -> requests queue (at most queueCapacity requests, others are rejected) -> wait for future
+  batching thread: first request of batch is awaited without time limit, then requests are taken,
+                   until batch has maxBatchSize requests or maxWaitNanos pass after first one
+                   -> rows of inputs matrix -> network.calcOutputBy -> futures are completed by rows of outputs
+
+So batch is never delayed more than maxWaitNanos, and under load batches are full without waiting.
+ */
+public class MicroBatcher implements AutoCloseable {
+    private record Request(double[] input, CompletableFuture<double[]> output) {
+    }
+
+    private final NeuralNetwork network;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final BlockingQueue<Request> requests;
+    private final Request[] batch;
+    private final Thread batchingThread;
+    private volatile boolean isClosed;
+
+    private final AtomicLong batchesCount = new AtomicLong();
+    private final AtomicLong batchedRequestsCount = new AtomicLong();
+
+    // Throws exception if maxBatchSize or queueCapacity isn't positive, or maxWaitNanos is negative
+    public MicroBatcher(NeuralNetwork network, int maxBatchSize, long maxWaitNanos, int queueCapacity) {
+        if (maxBatchSize <= 0 || maxWaitNanos < 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Bad argument for micro-batcher. Batch size and queue capacity must be positive, wait mustn't be negative.");
+        }
+
+        this.network = network;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+
+        requests = new ArrayBlockingQueue<>(queueCapacity);
+        batch = new Request[maxBatchSize];
+
+        batchingThread = new Thread(this::processBatches, "micro-batcher");
+        batchingThread.setDaemon(true);
+        batchingThread.start();
+    }
+
+    // Output of network by input. Future fails with RejectedExecutionException if queue is full or batcher is closed,
+    // and with exception of network, if batch calculation fails
+    // Throws exception if input size doesn't match network input size
+    public CompletableFuture<double[]> submit(double[] input) {
+        if (input.length != network.inputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Input size doesn't match network input size.");
+        }
+
+        Request request = new Request(input, new CompletableFuture<>());
+
+        if (isClosed || !requests.offer(request)) {
+            request.output().completeExceptionally(new RejectedExecutionException(isClosed ? "Batcher is closed." : "Requests queue is full."));
+        } else if (isClosed && requests.remove(request)) {
+            // Batcher was closed after check, and nobody takes the request
+            request.output().completeExceptionally(new RejectedExecutionException("Batcher is closed."));
+        }
+
+        return request.output();
+    }
+
+    // Average quantity of requests in one batch
+    public double getAverageBatchSize() {
+        long count = batchesCount.get();
+        return count == 0 ? 0 : (double)batchedRequestsCount.get() / count;
+    }
+
+    public long getBatchesCount() {
+        return batchesCount.get();
+    }
+
+    // Requests, which are in queue, fail
+    @Override
+    public void close() {
+        isClosed = true;
+        batchingThread.interrupt();
+
+        for (Request request = requests.poll(); request != null; request = requests.poll()) {
+            request.output().completeExceptionally(new RejectedExecutionException("Batcher is closed."));
+        }
+    }
+
+    private void processBatches() {
+        while (!isClosed) {
+            int size;
+
+            try {
+                size = takeBatch();
+            } catch (InterruptedException e) {
+                // Batcher is closed, requests of unfinished batch fail
+                for (int i = 0; i < batch.length && batch[i] != null; ++i) {
+                    batch[i].output().completeExceptionally(new RejectedExecutionException("Batcher is closed."));
+                    batch[i] = null;
+                }
+
+                break;
+            }
+
+            calcBatch(size);
+        }
+    }
+
+    // Fills batch with requests and returns their quantity
+    private int takeBatch() throws InterruptedException {
+        batch[0] = requests.take();
+        int size = 1;
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        while (size < maxBatchSize) {
+            // Requests, which are already in queue, are taken without waiting
+            size += drainTo(size);
+
+            long remainingNanos = deadline - System.nanoTime();
+
+            if (size == maxBatchSize || remainingNanos <= 0) {
+                break;
+            }
+
+            Request request = requests.poll(remainingNanos, TimeUnit.NANOSECONDS);
+
+            if (request == null) {
+                break;
+            }
+
+            batch[size++] = request;
+        }
+
+        return size;
+    }
+
+    private int drainTo(int size) {
+        int count = 0;
+
+        for (Request request; size + count < maxBatchSize && (request = requests.poll()) != null; ++count) {
+            batch[size + count] = request;
+        }
+
+        return count;
+    }
+
+    private void calcBatch(int size) {
+        try {
+            Matrix inputs = new Matrix(size, network.inputSize);
+
+            for (int i = 0; i < size; ++i) {
+                System.arraycopy(batch[i].input(), 0, inputs.values, i * inputs.M, inputs.M);
+            }
+
+            Matrix outputs = network.calcOutputBy(inputs);
+
+            for (int i = 0; i < size; ++i) {
+                batch[i].output().complete(outputs.row(i).toArray());
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < size; ++i) {
+                batch[i].output().completeExceptionally(e);
+            }
+        }
+
+        for (int i = 0; i < size; ++i) {
+            batch[i] = null;
+        }
+
+        batchesCount.incrementAndGet();
+        batchedRequestsCount.addAndGet(size);
+    }
+}
@@ -0,0 +1,328 @@
+package com.company.model;
+
+import java.util.Arrays;
+
+// Single precision matrix with the same layout as Matrix. It takes half the memory and half the memory bandwidth,
+// and SIMD registers hold twice as many elements, so it's used for fast network calculations (see FloatNeuralNetwork).
+// It has only operations, which network calculations need
+public class FloatMatrix {
+    public final int N; // Vertical (v-) dimension (first index)
+    public final int M; // Horizontal (h-) dimension (second index)
+
+    // Row-major storage. Element (i, j) is values[offset + i * stride + j]
+    public final float[] values;
+    public final int offset;
+    public final int stride; // Distance between first elements of neighbouring rows
+
+    // Side of square blocks in multiplication kernels
+    private static final int BLOCK_SIZE = 64;
+
+    private static final MatrixKernels KERNELS = MatrixKernels.INSTANCE;
+
+    // Makes empty matrix
+    public FloatMatrix(int N, int M) {
+        this.N = N;
+        this.M = M;
+        values = new float[N * M];
+        offset = 0;
+        stride = M;
+    }
+
+    // Makes matrix with values of double matrix rounded to floats
+    public FloatMatrix(Matrix matrix) {
+        this(matrix.N, matrix.M);
+        copyValues(matrix, this);
+    }
+
+    // Makes view of values without copying
+    private FloatMatrix(int N, int M, float[] values, int offset, int stride) {
+        // Rows of view mustn't overlap, so every element has its own place in values
+        if (stride < 0 || (N > 1 && stride < M)) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. Stride is less than row length.");
+        }
+
+        if (N < 0 || M < 0 || offset < 0 || (N > 0 && M > 0 && offset + (long)(N - 1) * stride + M > values.length)) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. View is out of values bounds.");
+        }
+
+        this.N = N;
+        this.M = M;
+        this.values = values;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    // Makes matrix, which uses given array as storage. Changes of matrix are visible in array and vice versa
+    // Throws exception if dimensions don't match to values quantity
+    public static FloatMatrix wrap(int N, int M, float[] values) {
+        if (values.length != N * M) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. Values quantities don't match dimensions.");
+        }
+
+        return new FloatMatrix(N, M, values, 0, M);
+    }
+
+    // Makes matrix, which uses part of given array as storage, starting from offset, rows are stride elements apart
+    public static FloatMatrix wrap(int N, int M, float[] values, int offset, int stride) {
+        return new FloatMatrix(N, M, values, offset, stride);
+    }
+
+    // Row i as 1 x M view
+    public FloatMatrix row(int i) {
+        checkBounds(i, 0);
+        return new FloatMatrix(1, M, values, offset + i * stride, M);
+    }
+
+    public float get(int i, int j) {
+        checkBounds(i, j);
+        return values[offset + i * stride + j];
+    }
+
+    public void set(int i, int j, float value) {
+        checkBounds(i, j);
+        values[offset + i * stride + j] = value;
+    }
+
+    // True if rows follow each other without gaps, so elements are values[offset] ... values[offset + N * M - 1]
+    public boolean isContiguous() {
+        return stride == M || N <= 1;
+    }
+
+    // Sets values of double matrix rounded to floats
+    // Throws exception if dimensions don't equal
+    public FloatMatrix copyFrom(Matrix matrix) {
+        if (N != matrix.N || M != matrix.M) {
+            throw new IllegalArgumentException("Bad argument for matrix copying. Dimensions don't equal.");
+        }
+
+        copyValues(matrix, this);
+        return this;
+    }
+
+    // Dimensions of matrices must be equal
+    private static void copyValues(Matrix source, FloatMatrix target) {
+        for (int i = 0; i < target.N; ++i) {
+            for (int j = 0; j < target.M; ++j) {
+                target.values[target.offset + i * target.stride + j] = (float)source.values[source.offset + i * source.stride + j];
+            }
+        }
+    }
+
+    // Double matrix with the same values
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(N, M);
+
+        for (int i = 0; i < N; ++i) {
+            for (int j = 0; j < M; ++j) {
+                matrix.values[i * M + j] = values[offset + i * stride + j];
+            }
+        }
+
+        return matrix;
+    }
+
+    private void checkBounds(int i, int j) {
+        if (i < 0 || i >= N || j < 0 || j >= M) {
+            throw new IndexOutOfBoundsException("Bad argument for matrix indexing. Index (" + i + ", " + j + ") is out of matrix bounds.");
+        }
+    }
+
+    // Throws exception if dimensions don't equal
+    public FloatMatrix add(FloatMatrix term) {
+        if (N != term.N || M != term.M) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
+        }
+
+        if (isContiguous() && term.isContiguous()) {
+            KERNELS.add(term.values, term.offset, values, offset, N * M);
+            return this;
+        }
+
+        for (int i = 0; i < N; ++i) {
+            KERNELS.add(term.values, term.offset + i * term.stride, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Adds vector with M elements (row or column) to every row of this
+    // Throws exception if vector size doesn't match h-dimension
+    public FloatMatrix addToEachRow(FloatMatrix vector) {
+        if (vector.N * vector.M != M || (vector.N != 1 && vector.M != 1) || !vector.isContiguous()) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Vector size doesn't match h-dimension.");
+        }
+
+        for (int i = 0; i < N; ++i) {
+            KERNELS.add(vector.values, vector.offset, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Adds term multiplied by factor, this += factor * term
+    // Throws exception if dimensions don't equal
+    public FloatMatrix addScaled(FloatMatrix term, float factor) {
+        if (N != term.N || M != term.M) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
+        }
+
+        if (isContiguous() && term.isContiguous()) {
+            KERNELS.axpy(factor, term.values, term.offset, values, offset, N * M);
+            return this;
+        }
+
+        for (int i = 0; i < N; ++i) {
+            KERNELS.axpy(factor, term.values, term.offset + i * term.stride, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Multiplies every element by factor
+    public FloatMatrix scale(float factor) {
+        if (isContiguous()) {
+            KERNELS.scale(factor, values, offset, N * M);
+            return this;
+        }
+
+        for (int i = 0; i < N; ++i) {
+            KERNELS.scale(factor, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Sets every element to value
+    public FloatMatrix fill(float value) {
+        for (int i = 0; i < N; ++i) {
+            Arrays.fill(values, offset + i * stride, offset + i * stride + M, value);
+        }
+
+        return this;
+    }
+
+    // Product of this and factor vector (M x 1 contiguous matrix) is written to result vector (N x 1 matrix)
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public FloatMatrix multiplyVectorInto(FloatMatrix factor, FloatMatrix result) {
+        if (M != factor.N || factor.M != 1 || !factor.isContiguous()) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        checkResultDimensions(result, N, 1);
+
+        for (int i = 0; i < N; ++i) {
+            result.values[result.offset + i * result.stride] = KERNELS.dot(values, offset + i * stride, factor.values, factor.offset, M);
+        }
+
+        return result;
+    }
+
+    // Product of this transposed and factor vector (N x 1 matrix) is written to result vector (M x 1 contiguous matrix).
+    // Transposed matrix isn't made
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public FloatMatrix multiplyTransposedLeftVectorInto(FloatMatrix factor, FloatMatrix result) {
+        if (N != factor.N || factor.M != 1) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        checkResultDimensions(result, M, 1);
+
+        if (!result.isContiguous()) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Result must be contiguous.");
+        }
+
+        result.fill(0);
+
+        // Result accumulates rows of this, scaled by vector elements
+        for (int k = 0; k < N; ++k) {
+            KERNELS.axpy(factor.values[factor.offset + k * factor.stride], values, offset + k * stride, result.values, result.offset, M);
+        }
+
+        return result;
+    }
+
+    // This - left operand, parameter transposed - right operand. Transposed matrix isn't made
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public FloatMatrix multiplyTransposedRight(FloatMatrix factor) {
+        return multiplyTransposedRightInto(factor, new FloatMatrix(N, factor.N));
+    }
+
+    // Same as multiplyTransposedRight, but product is written to result, which must have N x factor.N dimensions
+    public FloatMatrix multiplyTransposedRightInto(FloatMatrix factor, FloatMatrix result) {
+        if (M != factor.M) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        checkResultDimensions(result, N, factor.N);
+
+        // Result(i, j) = dot product of rows i of this and j of factor. Block of factor rows is reused by block of this rows
+        for (int iBlock = 0; iBlock < N; iBlock += BLOCK_SIZE) {
+            int iEnd = Math.min(iBlock + BLOCK_SIZE, N);
+
+            for (int jBlock = 0; jBlock < factor.N; jBlock += BLOCK_SIZE) {
+                int jEnd = Math.min(jBlock + BLOCK_SIZE, factor.N);
+
+                int i = iBlock;
+
+                // Four rows of this at once, so every loaded element of factor row is used four times
+                for (; i + 4 <= iEnd; i += 4) {
+                    for (int j = jBlock; j < jEnd; ++j) {
+                        KERNELS.dot4(values, offset + i * stride, stride, factor.values, factor.offset + j * factor.stride, M, result.values, result.offset + i * result.stride + j, result.stride);
+                    }
+                }
+
+                for (; i < iEnd; ++i) {
+                    for (int j = jBlock; j < jEnd; ++j) {
+                        result.values[result.offset + i * result.stride + j] = KERNELS.dot(values, offset + i * stride, factor.values, factor.offset + j * factor.stride, M);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // Adds outer product of left vector (N x 1 matrix) and right vector (M x 1 contiguous matrix), this += left * right^T
+    // Throws exception if vectors sizes don't match this dimensions
+    public FloatMatrix addOuterProduct(FloatMatrix left, FloatMatrix right) {
+        if (left.M != 1 || right.M != 1 || left.N != N || right.N != M || !right.isContiguous()) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
+        }
+
+        // Row i gets right vector scaled by left[i]
+        for (int i = 0; i < N; ++i) {
+            KERNELS.axpy(left.values[left.offset + i * left.stride], right.values, right.offset, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Sigmoid of every element is written to output, which must have input dimensions. Output may be input itself
+    public static FloatMatrix sigmoidOf(FloatMatrix input, FloatMatrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for sigmoid calculation. Dimensions don't equal.");
+        }
+
+        if (input.isContiguous() && output.isContiguous()) {
+            KERNELS.sigmoid(input.values, input.offset, output.values, output.offset, input.N * input.M);
+            return output;
+        }
+
+        for (int i = 0; i < input.N; ++i) {
+            KERNELS.sigmoid(input.values, input.offset + i * input.stride, output.values, output.offset + i * output.stride, input.M);
+        }
+
+        return output;
+    }
+
+    private static void checkResultDimensions(FloatMatrix result, int N, int M) {
+        if (result.N != N || result.M != M) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Result dimensions don't match criteria.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
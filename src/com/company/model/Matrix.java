@@ -1,13 +1,20 @@
 package com.company.model;
 
 import java.util.Arrays;
-import java.util.stream.IntStream;
 
 public class Matrix {
     public final int N; // Vertical (v-) dimension (first index)
     public final int M; // Horizontal (h-) dimension (second index)
 
-    public final double[][] values;
+    // Row-major storage. Element (i, j) is values[offset + i * stride + j]
+    public final double[] values;
+    public final int offset;
+    public final int stride; // Distance between first elements of neighbouring rows
+
+    // Side of square blocks in multiplication kernels, 64 x 64 doubles block is 32 KB
+    private static final int BLOCK_SIZE = 64;
+
+    private static final MatrixKernels KERNELS = MatrixKernels.INSTANCE;
 
     // Makes matrix by dimensions and vector of values. Values divide to N groups by M.
     // Throws exception if dimensions don't match to values quantity (v-dimension and h-dimension multiplication)
@@ -18,11 +25,9 @@ public class Matrix {
 
         this.N = N;
         this.M = M;
-        this.values = new double[N][M];
-
-        for (int i = 0; i < N; ++i) {
-            System.arraycopy(values, M * i, this.values[i], 0, M);
-        }
+        this.values = values.clone();
+        offset = 0;
+        stride = M;
     }
 
     public Matrix(double[][] values) {
@@ -32,17 +37,30 @@ public class Matrix {
 
         N = values.length;
         M = values[0].length;
-        this.values = values;
+        this.values = new double[N * M];
+        offset = 0;
+        stride = M;
+
+        for (int i = 0; i < N; ++i) {
+            System.arraycopy(values[i], 0, this.values, i * M, M);
+        }
     }
 
-    // Makes matrix by another matrix
+    // Makes matrix by another matrix. Copy is always contiguous, even if matrix is a view
     public Matrix(Matrix matrix) {
         N = matrix.N;
         M = matrix.M;
-        values = new double[this.N][];
+        offset = 0;
+        stride = M;
 
-        for (int i = 0; i < N; ++i) {
-            values[i] = matrix.values[i].clone();
+        if (matrix.isContiguous()) {
+            values = Arrays.copyOfRange(matrix.values, matrix.offset, matrix.offset + N * M);
+        } else {
+            values = new double[N * M];
+
+            for (int i = 0; i < N; ++i) {
+                System.arraycopy(matrix.values, matrix.offset + i * matrix.stride, values, i * M, M);
+            }
         }
     }
 
@@ -50,7 +68,89 @@ public class Matrix {
     public Matrix(int N, int M) {
         this.N = N;
         this.M = M;
-        values = new double[N][M];
+        values = new double[N * M];
+        offset = 0;
+        stride = M;
+    }
+
+    // Makes view of values without copying
+    private Matrix(int N, int M, double[] values, int offset, int stride) {
+        // Rows of view mustn't overlap, so every element has its own place in values
+        if (stride < 0 || (N > 1 && stride < M)) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. Stride is less than row length.");
+        }
+
+        if (N < 0 || M < 0 || offset < 0 || (N > 0 && M > 0 && offset + (long)(N - 1) * stride + M > values.length)) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. View is out of values bounds.");
+        }
+
+        this.N = N;
+        this.M = M;
+        this.values = values;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    // Makes matrix, which uses given array as storage. Changes of matrix are visible in array and vice versa
+    // Throws exception if dimensions don't match to values quantity
+    public static Matrix wrap(int N, int M, double[] values) {
+        if (values.length != N * M) {
+            throw new IllegalArgumentException("Bad argument for matrix initialization. Values quantities don't match dimensions.");
+        }
+
+        return new Matrix(N, M, values, 0, M);
+    }
+
+    // Makes matrix, which uses part of given array as storage, starting from offset, rows are stride elements apart
+    public static Matrix wrap(int N, int M, double[] values, int offset, int stride) {
+        return new Matrix(N, M, values, offset, stride);
+    }
+
+    // Row i as 1 x M view
+    public Matrix row(int i) {
+        checkBounds(i, 0);
+        return new Matrix(1, M, values, offset + i * stride, M);
+    }
+
+    // Column j as N x 1 view
+    public Matrix column(int j) {
+        checkBounds(0, j);
+        return new Matrix(N, 1, values, offset + j, stride);
+    }
+
+    // Rectangle with N rows and M columns, starting from (i, j), as view
+    public Matrix view(int i, int j, int N, int M) {
+        if (i < 0 || j < 0 || i + N > this.N || j + M > this.M) {
+            throw new IndexOutOfBoundsException("Bad argument for matrix view. View is out of matrix bounds.");
+        }
+
+        return new Matrix(N, M, values, offset + i * stride + j, stride);
+    }
+
+    public double get(int i, int j) {
+        checkBounds(i, j);
+        return values[offset + i * stride + j];
+    }
+
+    public void set(int i, int j, double value) {
+        checkBounds(i, j);
+        values[offset + i * stride + j] = value;
+    }
+
+    // True if rows follow each other without gaps, so elements are values[offset] ... values[offset + N * M - 1]
+    public boolean isContiguous() {
+        return stride == M || N <= 1;
+    }
+
+    // Copies elements to new array row by row
+    public double[] toArray() {
+        return new Matrix(this).values;
+    }
+
+    private void checkBounds(int i, int j) {
+        if (i < 0 || i >= N || j < 0 || j >= M) {
+            throw new IndexOutOfBoundsException("Bad argument for matrix indexing. Index (" + i + ", " + j + ") is out of matrix bounds.");
+        }
     }
 
     // Throws exception if dimensions don't equal
@@ -59,58 +159,103 @@ public class Matrix {
             throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
         }
 
-        Matrix sum = new Matrix(this);
+        return new Matrix(this).add(term);
+    }
+
+    public Matrix minus(Matrix term) {
+        if (N != term.N || M != term.M) {
+            throw new IllegalArgumentException("Bad argument for matrix subtraction. Dimensions don't equal.");
+        }
+
+        return new Matrix(this).subtract(term);
+    }
+
+    // Throws exception if dimensions don't equal
+    public Matrix add(Matrix term) {
+        if (N != term.N || M != term.M) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
+        }
+
+        if (isContiguous() && term.isContiguous()) {
+            KERNELS.add(term.values, term.offset, values, offset, N * M);
+            return this;
+        }
 
         for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < M; ++j) {
-                sum.values[i][j] += term.values[i][j];
-            }
+            KERNELS.add(term.values, term.offset + i * term.stride, values, offset + i * stride, M);
         }
 
-        return sum;
+        return this;
     }
 
-    public Matrix minus(Matrix term) {
+    // Throws exception if dimensions don't equal
+    public Matrix subtract(Matrix term) {
         if (N != term.N || M != term.M) {
             throw new IllegalArgumentException("Bad argument for matrix subtraction. Dimensions don't equal.");
         }
 
-        Matrix sum = new Matrix(this);
+        if (isContiguous() && term.isContiguous()) {
+            KERNELS.subtract(term.values, term.offset, values, offset, N * M);
+            return this;
+        }
 
         for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < M; ++j) {
-                sum.values[i][j] -= term.values[i][j];
-            }
+            KERNELS.subtract(term.values, term.offset + i * term.stride, values, offset + i * stride, M);
         }
 
-        return sum;
+        return this;
     }
 
+    // Adds vector with M elements (row or column) to every row of this
+    // Throws exception if vector size doesn't match h-dimension
+    public Matrix addToEachRow(Matrix vector) {
+        if (vector.N * vector.M != M || (vector.N != 1 && vector.M != 1)) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Vector size doesn't match h-dimension.");
+        }
+
+        double[] vectorValues = vector.values;
+        int vectorOffset = vector.offset;
+
+        if (!vector.isContiguous()) {
+            vectorValues = vector.toArray();
+            vectorOffset = 0;
+        }
+
+        for (int i = 0; i < N; ++i) {
+            KERNELS.add(vectorValues, vectorOffset, values, offset + i * stride, M);
+        }
+
+        return this;
+    }
+
+    // Adds term multiplied by factor, this += factor * term
     // Throws exception if dimensions don't equal
-    public Matrix add(Matrix term) {
+    public Matrix addScaled(Matrix term, double factor) {
         if (N != term.N || M != term.M) {
             throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
         }
 
+        if (isContiguous() && term.isContiguous()) {
+            KERNELS.axpy(factor, term.values, term.offset, values, offset, N * M);
+            return this;
+        }
+
         for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < M; ++j) {
-                values[i][j] += term.values[i][j];
-            }
+            KERNELS.axpy(factor, term.values, term.offset + i * term.stride, values, offset + i * stride, M);
         }
 
         return this;
     }
 
-    // Throws exception if dimensions don't equal
-    public Matrix subtract(Matrix term) {
-        if (N != term.N || M != term.M) {
-            throw new IllegalArgumentException("Bad argument for matrix subtraction. Dimensions don't equal.");
+    // Multiplies every element by factor
+    public Matrix scale(double factor) {
+        if (isContiguous()) {
+            KERNELS.scale(factor, values, offset, N * M);
+            return this;
         }
 
         for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < M; ++j) {
-                values[i][j] -= term.values[i][j];
-            }
+            KERNELS.scale(factor, values, offset + i * stride, M);
         }
 
         return this;
@@ -119,36 +264,260 @@ public class Matrix {
     // This - left operand, parameter - right operand
     // Throws exception if dimensions don't match criteria of matrix multiplication
     public Matrix multiply(Matrix factor) {
+        return multiplyInto(factor, new Matrix(N, factor.M));
+    }
+
+    // Same as multiply, but product is written to result, which must have N x factor.M dimensions
+    public Matrix multiplyInto(Matrix factor, Matrix result) {
         if (M != factor.N) {
             throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
         }
 
-        Matrix multiplication = new Matrix(N, factor.M);
+        checkResultDimensions(result, N, factor.M);
 
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < factor.M; ++j) {
-                for (int k = 0; k < M; ++k) {
-                    multiplication.values[i][j] += values[i][k] * factor.values[k][j];
+        if (factor.M == 1) {
+            // Matrix by vector: every element is dot product of contiguous row and vector
+            for (int i = 0; i < N; ++i) {
+                result.values[result.offset + i * result.stride] = dot(values, offset + i * stride, 1, factor.values, factor.offset, factor.stride, M);
+            }
+
+            return result;
+        }
+
+        result.fill(0);
+
+        // Blocked i-k-j order: rows of factor and result are read sequentially, and blocks stay in cache while reused
+        for (int iBlock = 0; iBlock < N; iBlock += BLOCK_SIZE) {
+            int iEnd = Math.min(iBlock + BLOCK_SIZE, N);
+
+            for (int kBlock = 0; kBlock < M; kBlock += BLOCK_SIZE) {
+                int kEnd = Math.min(kBlock + BLOCK_SIZE, M);
+
+                for (int jBlock = 0; jBlock < factor.M; jBlock += BLOCK_SIZE) {
+                    int jLength = Math.min(jBlock + BLOCK_SIZE, factor.M) - jBlock;
+
+                    for (int i = iBlock; i < iEnd; ++i) {
+                        int resultRowStart = result.offset + i * result.stride + jBlock;
+
+                        for (int k = kBlock; k < kEnd; ++k) {
+                            axpy(values[offset + i * stride + k], factor.values, factor.offset + k * factor.stride + jBlock, result.values, resultRowStart, jLength);
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // This transposed - left operand, parameter - right operand. Transposed matrix isn't made
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public Matrix multiplyTransposedLeft(Matrix factor) {
+        return multiplyTransposedLeftInto(factor, new Matrix(M, factor.M));
+    }
+
+    // Same as multiplyTransposedLeft, but product is written to result, which must have M x factor.M dimensions
+    public Matrix multiplyTransposedLeftInto(Matrix factor, Matrix result) {
+        if (N != factor.N) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        checkResultDimensions(result, M, factor.M);
+        result.fill(0);
+
+        if (factor.M == 1) {
+            // Transposed matrix by vector: result accumulates rows of this, scaled by vector elements
+            for (int k = 0; k < N; ++k) {
+                axpyStrided(factor.values[factor.offset + k * factor.stride], values, offset + k * stride, result.values, result.offset, result.stride, M);
+            }
+
+            return result;
+        }
+
+        // Result(i, j) = sum by k of this(k, i) * factor(k, j). Rows of this and factor are read sequentially
+        for (int iBlock = 0; iBlock < M; iBlock += BLOCK_SIZE) {
+            int iEnd = Math.min(iBlock + BLOCK_SIZE, M);
+
+            for (int kBlock = 0; kBlock < N; kBlock += BLOCK_SIZE) {
+                int kEnd = Math.min(kBlock + BLOCK_SIZE, N);
+
+                for (int jBlock = 0; jBlock < factor.M; jBlock += BLOCK_SIZE) {
+                    int jLength = Math.min(jBlock + BLOCK_SIZE, factor.M) - jBlock;
+
+                    for (int i = iBlock; i < iEnd; ++i) {
+                        int resultRowStart = result.offset + i * result.stride + jBlock;
+
+                        for (int k = kBlock; k < kEnd; ++k) {
+                            axpy(values[offset + k * stride + i], factor.values, factor.offset + k * factor.stride + jBlock, result.values, resultRowStart, jLength);
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // This - left operand, parameter transposed - right operand. Transposed matrix isn't made
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public Matrix multiplyTransposedRight(Matrix factor) {
+        return multiplyTransposedRightInto(factor, new Matrix(N, factor.N));
+    }
+
+    // Same as multiplyTransposedRight, but product is written to result, which must have N x factor.N dimensions
+    public Matrix multiplyTransposedRightInto(Matrix factor, Matrix result) {
+        if (M != factor.M) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        checkResultDimensions(result, N, factor.N);
+
+        if (M == 1) {
+            // Vector by transposed vector (outer product): result rows are factor scaled by elements of this
+            for (int i = 0; i < N; ++i) {
+                double scale = values[offset + i * stride];
+                int resultRowStart = result.offset + i * result.stride;
+
+                for (int j = 0; j < factor.N; ++j) {
+                    result.values[resultRowStart + j] = scale * factor.values[factor.offset + j * factor.stride];
+                }
+            }
+
+            return result;
+        }
+
+        // Result(i, j) = dot product of rows i of this and j of factor. Block of factor rows is reused by block of this rows
+        for (int iBlock = 0; iBlock < N; iBlock += BLOCK_SIZE) {
+            int iEnd = Math.min(iBlock + BLOCK_SIZE, N);
+
+            for (int jBlock = 0; jBlock < factor.N; jBlock += BLOCK_SIZE) {
+                int jEnd = Math.min(jBlock + BLOCK_SIZE, factor.N);
+
+                int i = iBlock;
+
+                // Four rows of this at once, so every loaded element of factor row is used four times
+                for (; i + 4 <= iEnd; i += 4) {
+                    for (int j = jBlock; j < jEnd; ++j) {
+                        KERNELS.dot4(values, offset + i * stride, stride, factor.values, factor.offset + j * factor.stride, M, result.values, result.offset + i * result.stride + j, result.stride);
+                    }
                 }
+
+                for (; i < iEnd; ++i) {
+                    for (int j = jBlock; j < jEnd; ++j) {
+                        result.values[result.offset + i * result.stride + j] = dot(values, offset + i * stride, 1, factor.values, factor.offset + j * factor.stride, 1, M);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // Adds product of left and right transposed, this += left * right^T. With vectors it's outer product accumulation
+    // Throws exception if dimensions don't match criteria of matrix multiplication or don't match this dimensions
+    public Matrix addProductTransposedRight(Matrix left, Matrix right) {
+        if (left.M != right.M) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        if (left.N != N || right.N != M) {
+            throw new IllegalArgumentException("Bad argument for matrix summation. Dimensions don't equal.");
+        }
+
+        if (left.M == 1 && right.stride == 1) {
+            // Row i gets right vector scaled by left[i]
+            for (int i = 0; i < N; ++i) {
+                KERNELS.axpy(left.values[left.offset + i * left.stride], right.values, right.offset, values, offset + i * stride, M);
             }
+
+            return this;
         }
 
-        return multiplication;
+        for (int i = 0; i < N; ++i) {
+            for (int j = 0; j < M; ++j) {
+                values[offset + i * stride + j] += dot(left.values, left.offset + i * left.stride, 1, right.values, right.offset + j * right.stride, 1, left.M);
+            }
+        }
+
+        return this;
+    }
+
+    // Sets every element to value
+    public Matrix fill(double value) {
+        for (int i = 0; i < N; ++i) {
+            Arrays.fill(values, offset + i * stride, offset + i * stride + M, value);
+        }
+
+        return this;
+    }
+
+    private static void checkResultDimensions(Matrix result, int N, int M) {
+        if (result.N != N || result.M != M) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Result dimensions don't match criteria.");
+        }
+    }
+
+    // Sum of x[xOffset + k * xStep] * y[yOffset + k * yStep] for k from 0 to length - 1
+    private static double dot(double[] x, int xOffset, int xStep, double[] y, int yOffset, int yStep, int length) {
+        if (xStep == 1 && yStep == 1) {
+            return KERNELS.dot(x, xOffset, y, yOffset, length);
+        }
+
+        double sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            sum += x[xOffset + k * xStep] * y[yOffset + k * yStep];
+        }
+
+        return sum;
+    }
+
+    // y[yOffset + k] += a * x[xOffset + k] for k from 0 to length - 1
+    private static void axpy(double a, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        KERNELS.axpy(a, x, xOffset, y, yOffset, length);
+    }
+
+    // y[yOffset + k * yStep] += a * x[xOffset + k] for k from 0 to length - 1
+    private static void axpyStrided(double a, double[] x, int xOffset, double[] y, int yOffset, int yStep, int length) {
+        if (yStep == 1) {
+            axpy(a, x, xOffset, y, yOffset, length);
+            return;
+        }
+
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k * yStep] += a * x[xOffset + k];
+        }
     }
 
     // Each element in input transforms by sigmoid function
     public static Matrix sigmoidOf(Matrix input) {
         Matrix output = new Matrix(input);
+        KERNELS.sigmoid(output.values, 0, output.values, 0, output.values.length);
+
+        return output;
+    }
+
+    // Same as sigmoidOf, but result is written to output, which must have input dimensions. Output may be input itself
+    public static Matrix sigmoidOf(Matrix input, Matrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for sigmoid calculation. Dimensions don't equal.");
+        }
+
+        if (input.isContiguous() && output.isContiguous()) {
+            KERNELS.sigmoid(input.values, input.offset, output.values, output.offset, input.N * input.M);
+            return output;
+        }
 
         for (int i = 0; i < input.N; ++i) {
-            output.values[i][0] = sigmoid(input.values[i][0]);
+            KERNELS.sigmoid(input.values, input.offset + i * input.stride, output.values, output.offset + i * output.stride, input.M);
         }
 
         return output;
     }
 
-    private static double sigmoid(double x) {
-        return 1 / (1 + Math.pow(Math.exp(1), -x));
+    // Name of kernels implementation, which is used by matrix operations ("scalar" or "vector (<width> bit)")
+    public static String getKernelsName() {
+        return KERNELS.name();
     }
 
     @Override
@@ -157,7 +526,7 @@ public class Matrix {
 
         for (int i = 0; i < N; ++i) {
             for (int j = 0; j < M; ++j) {
-                result.append(values[i][j]);
+                result.append(values[offset + i * stride + j]);
 
                 if (j + 1 < M) {
                     result.append(", ");
@@ -0,0 +1,77 @@
+package com.company.model;
+
+// Element loops of Matrix operations on contiguous parts of arrays.
+// Vector implementation is used if jdk.incubator.vector module is available, scalar implementation otherwise.
+// Implementation can be forced by system property backpropagation.kernels=scalar|vector
+interface MatrixKernels {
+    MatrixKernels INSTANCE = select(System.getProperty("backpropagation.kernels", "auto"));
+
+    // Sum of x[xOffset + k] * y[yOffset + k]
+    double dot(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    // Dot products of four rows of x (rows are xStride elements apart) and y.
+    // Product with row r is written to result[resultOffset + r * resultStride]
+    void dot4(double[] x, int xOffset, int xStride, double[] y, int yOffset, int length, double[] result, int resultOffset, int resultStride);
+
+    // y[yOffset + k] += a * x[xOffset + k]
+    void axpy(double a, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    // y[yOffset + k] += x[xOffset + k]
+    void add(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    // y[yOffset + k] -= x[xOffset + k]
+    void subtract(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    // y[yOffset + k] *= a
+    void scale(double a, double[] y, int yOffset, int length);
+
+    // y[yOffset + k] = 1 / (1 + e^(-x[xOffset + k])), arrays parts may be the same
+    void sigmoid(double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    // Single precision variants of the same loops, used by FloatMatrix
+
+    float dot(float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    void dot4(float[] x, int xOffset, int xStride, float[] y, int yOffset, int length, float[] result, int resultOffset, int resultStride);
+
+    void axpy(float a, float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    void add(float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    void scale(float a, float[] y, int yOffset, int length);
+
+    void sigmoid(float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    // Integer variant for quantized matrices, products of int8 values are summed exactly in int
+    int dot(byte[] x, int xOffset, byte[] y, int yOffset, int length);
+
+    String name();
+
+    private static MatrixKernels select(String kernels) {
+        if (kernels.equals("scalar")) {
+            return new ScalarMatrixKernels();
+        }
+
+        MatrixKernels vectorKernels = vectorKernels();
+
+        if (vectorKernels == null && kernels.equals("vector")) {
+            throw new IllegalStateException("Vector kernels are requested, but jdk.incubator.vector module isn't available. Run with --add-modules jdk.incubator.vector");
+        }
+
+        return vectorKernels == null ? new ScalarMatrixKernels() : vectorKernels;
+    }
+
+    // Returns null if vector API can't be used in this JVM
+    static MatrixKernels vectorKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+
+        try {
+            // Loaded by name, so JVM without vector API never links the class
+            return (MatrixKernels) Class.forName("com.company.model.VectorMatrixKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.model;
+
+// Floating point type of network calculations
+public enum Precision {
+    DOUBLE, // Matrix and NeuralNetwork, results are exact enough to verify other calculations
+    FLOAT // FloatMatrix and FloatNeuralNetwork, half the memory traffic and twice as many elements in SIMD registers
+}
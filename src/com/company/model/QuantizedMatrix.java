@@ -0,0 +1,113 @@
+package com.company.model;
+
+/*
+Matrix of int8 values with one scale for every row (symmetric per-row quantization):
+
+  A(i, j) ~ scale(i) * Q(i, j),  scale(i) = max|A(i, *)| / 127,  Q(i, j) = round(A(i, j) / scale(i)) in [-127, 127]
+
+Vector is quantized the same way with one scale for all elements, so product element is one integer dot product:
+
+  (A * X)(i) ~ scale(i) * scale(X) * sum of Q(i, j) * Q(X)(j)
+
+Values take 8 times less memory than doubles, and integer products are summed exactly.
+ */
+public class QuantizedMatrix {
+    public final int N; // Vertical (v-) dimension (first index)
+    public final int M; // Horizontal (h-) dimension (second index)
+
+    // Row-major storage, element (i, j) is values[i * M + j]
+    public final byte[] values;
+    public final float[] rowsScales;
+
+    public static final int MAX_QUANTIZED_VALUE = 127;
+
+    private static final MatrixKernels KERNELS = MatrixKernels.INSTANCE;
+
+    // Quantizes every row of matrix by its maximal absolute value. Row of zeros gets scale 1
+    public QuantizedMatrix(Matrix matrix) {
+        N = matrix.N;
+        M = matrix.M;
+        values = new byte[N * M];
+        rowsScales = new float[N];
+
+        for (int i = 0; i < N; ++i) {
+            double maxAbsValue = 0;
+
+            for (int j = 0; j < M; ++j) {
+                maxAbsValue = Math.max(maxAbsValue, Math.abs(matrix.get(i, j)));
+            }
+
+            rowsScales[i] = scaleOf(maxAbsValue);
+
+            for (int j = 0; j < M; ++j) {
+                values[i * M + j] = quantize(matrix.get(i, j), rowsScales[i]);
+            }
+        }
+    }
+
+    // Scale, which maps [-maxAbsValue, maxAbsValue] to [-127, 127]
+    public static float scaleOf(double maxAbsValue) {
+        return maxAbsValue > 0 ? (float)(maxAbsValue / MAX_QUANTIZED_VALUE) : 1;
+    }
+
+    // Nearest quantized value, values out of scale range are clamped
+    public static byte quantize(double value, float scale) {
+        long quantized = Math.round(value / scale);
+        return (byte)Math.max(-MAX_QUANTIZED_VALUE, Math.min(MAX_QUANTIZED_VALUE, quantized));
+    }
+
+    // Quantizes elements of vector (contiguous matrix with one row or column) to target by one scale
+    // Throws exception if sizes don't equal
+    public static byte[] quantize(FloatMatrix vector, float scale, byte[] target) {
+        if (!vector.isContiguous() || (vector.N != 1 && vector.M != 1) || vector.N * vector.M > target.length) {
+            throw new IllegalArgumentException("Bad argument for vector quantization. Vector sizes don't match target.");
+        }
+
+        float inverseScale = 1 / scale;
+
+        for (int k = 0; k < vector.N * vector.M; ++k) {
+            int quantized = Math.round(vector.values[vector.offset + k] * inverseScale);
+            target[k] = (byte)Math.max(-MAX_QUANTIZED_VALUE, Math.min(MAX_QUANTIZED_VALUE, quantized));
+        }
+
+        return target;
+    }
+
+    // Product of this and quantized vector with M elements is written to result vector (N x 1 matrix)
+    // Throws exception if dimensions don't match criteria of matrix multiplication
+    public FloatMatrix multiplyVectorInto(byte[] vector, float vectorScale, FloatMatrix result) {
+        if (vector.length < M || result.N != N || result.M != 1) {
+            throw new IllegalArgumentException("Bad argument for matrix multiplication. Dimensions don't match criteria.");
+        }
+
+        for (int i = 0; i < N; ++i) {
+            int product = KERNELS.dot(values, i * M, vector, 0, M);
+            result.values[result.offset + i * result.stride] = product * rowsScales[i] * vectorScale;
+        }
+
+        return result;
+    }
+
+    // Double matrix with dequantized values
+    public Matrix toMatrix() {
+        Matrix matrix = new Matrix(N, M);
+
+        for (int i = 0; i < N; ++i) {
+            for (int j = 0; j < M; ++j) {
+                matrix.values[i * M + j] = values[i * M + j] * (double)rowsScales[i];
+            }
+        }
+
+        return matrix;
+    }
+
+    // Memory, which values and scales take
+    public long getBytesCount() {
+        return values.length + (long)rowsScales.length * Float.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return toMatrix().toString();
+    }
+}
@@ -7,10 +7,8 @@ public class RandomMatrix extends Matrix {
         super(N, M);
         Random random = new Random();
 
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < M; ++j) {
-                values[i][j] = -limit + random.nextDouble() * 2 * limit;
-            }
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = -limit + random.nextDouble() * 2 * limit;
         }
     }
 
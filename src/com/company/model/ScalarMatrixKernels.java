@@ -0,0 +1,147 @@
+package com.company.model;
+
+// Plain loops, which are left to JIT auto-vectorization
+final class ScalarMatrixKernels implements MatrixKernels {
+    @Override
+    public double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        double sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            sum += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void dot4(double[] x, int xOffset, int xStride, double[] y, int yOffset, int length, double[] result, int resultOffset, int resultStride) {
+        double firstSum = 0;
+        double secondSum = 0;
+        double thirdSum = 0;
+        double fourthSum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            double yValue = y[yOffset + k];
+            firstSum += x[xOffset + k] * yValue;
+            secondSum += x[xOffset + xStride + k] * yValue;
+            thirdSum += x[xOffset + 2 * xStride + k] * yValue;
+            fourthSum += x[xOffset + 3 * xStride + k] * yValue;
+        }
+
+        result[resultOffset] = firstSum;
+        result[resultOffset + resultStride] = secondSum;
+        result[resultOffset + 2 * resultStride] = thirdSum;
+        result[resultOffset + 3 * resultStride] = fourthSum;
+    }
+
+    @Override
+    public void axpy(double a, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] += a * x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void add(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] += x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void subtract(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] -= x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void scale(double a, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] *= a;
+        }
+    }
+
+    @Override
+    public void sigmoid(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] = 1 / (1 + Math.exp(-x[xOffset + k]));
+        }
+    }
+
+    @Override
+    public float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        float sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            sum += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void dot4(float[] x, int xOffset, int xStride, float[] y, int yOffset, int length, float[] result, int resultOffset, int resultStride) {
+        float firstSum = 0;
+        float secondSum = 0;
+        float thirdSum = 0;
+        float fourthSum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            float yValue = y[yOffset + k];
+            firstSum += x[xOffset + k] * yValue;
+            secondSum += x[xOffset + xStride + k] * yValue;
+            thirdSum += x[xOffset + 2 * xStride + k] * yValue;
+            fourthSum += x[xOffset + 3 * xStride + k] * yValue;
+        }
+
+        result[resultOffset] = firstSum;
+        result[resultOffset + resultStride] = secondSum;
+        result[resultOffset + 2 * resultStride] = thirdSum;
+        result[resultOffset + 3 * resultStride] = fourthSum;
+    }
+
+    @Override
+    public void axpy(float a, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] += a * x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void add(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] += x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void scale(float a, float[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] *= a;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void sigmoid(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int k = 0; k < length; ++k) {
+            y[yOffset + k] = (float)(1 / (1 + Math.exp(-x[xOffset + k])));
+        }
+    }
+
+    @Override
+    public int dot(byte[] x, int xOffset, byte[] y, int yOffset, int length) {
+        int sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            sum += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return sum;
+    }
+}
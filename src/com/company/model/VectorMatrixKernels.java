@@ -0,0 +1,312 @@
+package com.company.model;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Loops on SIMD registers of preferred width (4 doubles for AVX2, 8 for AVX-512), tails are done by scalar loops.
+// Needs --add-modules jdk.incubator.vector both for compilation and run
+final class VectorMatrixKernels implements MatrixKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final DoubleVector ONE = DoubleVector.broadcast(SPECIES, 1);
+
+    // Registers of the same width hold twice as many floats
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final FloatVector FLOAT_ONE = FloatVector.broadcast(FLOAT_SPECIES, 1);
+
+    // Register of bytes is loaded at once and widened to ints by Integer.BYTES parts of the same width
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public double dot(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        // Two accumulators hide latency of dependent fused multiply-adds
+        DoubleVector firstSum = DoubleVector.zero(SPECIES);
+        DoubleVector secondSum = DoubleVector.zero(SPECIES);
+
+        for (; k + SPECIES.length() < bound; k += 2 * SPECIES.length()) {
+            firstSum = DoubleVector.fromArray(SPECIES, x, xOffset + k).fma(DoubleVector.fromArray(SPECIES, y, yOffset + k), firstSum);
+            secondSum = DoubleVector.fromArray(SPECIES, x, xOffset + k + SPECIES.length()).fma(DoubleVector.fromArray(SPECIES, y, yOffset + k + SPECIES.length()), secondSum);
+        }
+
+        for (; k < bound; k += SPECIES.length()) {
+            firstSum = DoubleVector.fromArray(SPECIES, x, xOffset + k).fma(DoubleVector.fromArray(SPECIES, y, yOffset + k), firstSum);
+        }
+
+        double sum = firstSum.add(secondSum).reduceLanes(VectorOperators.ADD);
+
+        for (; k < length; ++k) {
+            sum += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void dot4(double[] x, int xOffset, int xStride, double[] y, int yOffset, int length, double[] result, int resultOffset, int resultStride) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        DoubleVector firstSum = DoubleVector.zero(SPECIES);
+        DoubleVector secondSum = DoubleVector.zero(SPECIES);
+        DoubleVector thirdSum = DoubleVector.zero(SPECIES);
+        DoubleVector fourthSum = DoubleVector.zero(SPECIES);
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector yVector = DoubleVector.fromArray(SPECIES, y, yOffset + k);
+            firstSum = DoubleVector.fromArray(SPECIES, x, xOffset + k).fma(yVector, firstSum);
+            secondSum = DoubleVector.fromArray(SPECIES, x, xOffset + xStride + k).fma(yVector, secondSum);
+            thirdSum = DoubleVector.fromArray(SPECIES, x, xOffset + 2 * xStride + k).fma(yVector, thirdSum);
+            fourthSum = DoubleVector.fromArray(SPECIES, x, xOffset + 3 * xStride + k).fma(yVector, fourthSum);
+        }
+
+        double first = firstSum.reduceLanes(VectorOperators.ADD);
+        double second = secondSum.reduceLanes(VectorOperators.ADD);
+        double third = thirdSum.reduceLanes(VectorOperators.ADD);
+        double fourth = fourthSum.reduceLanes(VectorOperators.ADD);
+
+        for (; k < length; ++k) {
+            double yValue = y[yOffset + k];
+            first += x[xOffset + k] * yValue;
+            second += x[xOffset + xStride + k] * yValue;
+            third += x[xOffset + 2 * xStride + k] * yValue;
+            fourth += x[xOffset + 3 * xStride + k] * yValue;
+        }
+
+        result[resultOffset] = first;
+        result[resultOffset + resultStride] = second;
+        result[resultOffset + 2 * resultStride] = third;
+        result[resultOffset + 3 * resultStride] = fourth;
+    }
+
+    @Override
+    public void axpy(double a, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, a);
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + k).fma(factor, DoubleVector.fromArray(SPECIES, y, yOffset + k)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] += a * x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void add(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, y, yOffset + k).add(DoubleVector.fromArray(SPECIES, x, xOffset + k)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] += x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void subtract(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, y, yOffset + k).sub(DoubleVector.fromArray(SPECIES, x, xOffset + k)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] -= x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void scale(double a, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, y, yOffset + k).mul(a).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] *= a;
+        }
+    }
+
+    @Override
+    public void sigmoid(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector exponent = DoubleVector.fromArray(SPECIES, x, xOffset + k).neg().lanewise(VectorOperators.EXP);
+            ONE.div(exponent.add(1)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] = 1 / (1 + Math.exp(-x[xOffset + k]));
+        }
+    }
+
+    @Override
+    public float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        FloatVector firstSum = FloatVector.zero(FLOAT_SPECIES);
+        FloatVector secondSum = FloatVector.zero(FLOAT_SPECIES);
+
+        for (; k + FLOAT_SPECIES.length() < bound; k += 2 * FLOAT_SPECIES.length()) {
+            firstSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k).fma(FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k), firstSum);
+            secondSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k + FLOAT_SPECIES.length()).fma(FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k + FLOAT_SPECIES.length()), secondSum);
+        }
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            firstSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k).fma(FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k), firstSum);
+        }
+
+        float sum = firstSum.add(secondSum).reduceLanes(VectorOperators.ADD);
+
+        for (; k < length; ++k) {
+            sum += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void dot4(float[] x, int xOffset, int xStride, float[] y, int yOffset, int length, float[] result, int resultOffset, int resultStride) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        FloatVector firstSum = FloatVector.zero(FLOAT_SPECIES);
+        FloatVector secondSum = FloatVector.zero(FLOAT_SPECIES);
+        FloatVector thirdSum = FloatVector.zero(FLOAT_SPECIES);
+        FloatVector fourthSum = FloatVector.zero(FLOAT_SPECIES);
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            FloatVector yVector = FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k);
+            firstSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k).fma(yVector, firstSum);
+            secondSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + xStride + k).fma(yVector, secondSum);
+            thirdSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + 2 * xStride + k).fma(yVector, thirdSum);
+            fourthSum = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + 3 * xStride + k).fma(yVector, fourthSum);
+        }
+
+        float first = firstSum.reduceLanes(VectorOperators.ADD);
+        float second = secondSum.reduceLanes(VectorOperators.ADD);
+        float third = thirdSum.reduceLanes(VectorOperators.ADD);
+        float fourth = fourthSum.reduceLanes(VectorOperators.ADD);
+
+        for (; k < length; ++k) {
+            float yValue = y[yOffset + k];
+            first += x[xOffset + k] * yValue;
+            second += x[xOffset + xStride + k] * yValue;
+            third += x[xOffset + 2 * xStride + k] * yValue;
+            fourth += x[xOffset + 3 * xStride + k] * yValue;
+        }
+
+        result[resultOffset] = first;
+        result[resultOffset + resultStride] = second;
+        result[resultOffset + 2 * resultStride] = third;
+        result[resultOffset + 3 * resultStride] = fourth;
+    }
+
+    @Override
+    public void axpy(float a, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        FloatVector factor = FloatVector.broadcast(FLOAT_SPECIES, a);
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k).fma(factor, FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] += a * x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void add(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k).add(FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] += x[xOffset + k];
+        }
+    }
+
+    @Override
+    public void scale(float a, float[] y, int yOffset, int length) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            FloatVector.fromArray(FLOAT_SPECIES, y, yOffset + k).mul(a).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] *= a;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.vectorBitSize() + " bit)";
+    }
+
+    @Override
+    public void sigmoid(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            FloatVector exponent = FloatVector.fromArray(FLOAT_SPECIES, x, xOffset + k).neg().lanewise(VectorOperators.EXP);
+            FLOAT_ONE.div(exponent.add(1)).intoArray(y, yOffset + k);
+        }
+
+        for (; k < length; ++k) {
+            y[yOffset + k] = (float)(1 / (1 + Math.exp(-x[xOffset + k])));
+        }
+    }
+
+    @Override
+    public int dot(byte[] x, int xOffset, byte[] y, int yOffset, int length) {
+        int bound = BYTE_SPECIES.loopBound(length);
+        int k = 0;
+
+        IntVector sum = IntVector.zero(INT_SPECIES);
+
+        for (; k < bound; k += BYTE_SPECIES.length()) {
+            ByteVector xBytes = ByteVector.fromArray(BYTE_SPECIES, x, xOffset + k);
+            ByteVector yBytes = ByteVector.fromArray(BYTE_SPECIES, y, yOffset + k);
+
+            for (int part = 0; part < Integer.BYTES; ++part) {
+                IntVector xVector = (IntVector)xBytes.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                IntVector yVector = (IntVector)yBytes.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                sum = xVector.mul(yVector).add(sum);
+            }
+        }
+
+        int result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; k < length; ++k) {
+            result += x[xOffset + k] * y[yOffset + k];
+        }
+
+        return result;
+    }
+}
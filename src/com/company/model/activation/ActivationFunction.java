@@ -0,0 +1,53 @@
+package com.company.model.activation;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+
+// Function, which transforms layer input (nodes charges) to layer output (nodes activations).
+// Implementations: Sigmoid (EXACT, TABLE, RATIONAL), ActivationFunctionsEnum (TANH, RELU, LEAKY_RELU) and Softmax (SOFTMAX)
+public interface ActivationFunction {
+    // Transforms input, result is written to output, which may be input itself.
+    // N x 1 matrix is one sample, otherwise every row is one sample (it matters only for functions of whole layer like softmax)
+    // Throws exception if dimensions don't equal
+    Matrix apply(Matrix input, Matrix output);
+
+    // Same as apply for single precision matrices
+    FloatMatrix apply(FloatMatrix input, FloatMatrix output);
+
+    // Derivative of node output by node input, expressed by node output, so derivative needs no input.
+    // For function of whole layer it's derivative by input of same node only, so backpropagation can't use it (see isElementWise)
+    double derivativeByOutput(double output);
+
+    // Whether node output depends only on input of same node. Function of whole layer (softmax) can be used only in output layer
+    // with loss function, which takes it into account
+    default boolean isElementWise() {
+        return true;
+    }
+
+    // Name of function, which is unique among all implementations (enum constant name)
+    String name();
+
+    // Function by its name
+    // Throws exception if there is no function with such name
+    static ActivationFunction valueOf(String name) {
+        for (ActivationFunctionsEnum function : ActivationFunctionsEnum.values()) {
+            if (function.name().equals(name)) {
+                return function;
+            }
+        }
+
+        for (Sigmoid function : Sigmoid.values()) {
+            if (function.name().equals(name)) {
+                return function;
+            }
+        }
+
+        for (Softmax function : Softmax.values()) {
+            if (function.name().equals(name)) {
+                return function;
+            }
+        }
+
+        throw new IllegalArgumentException("Bad argument for activation function search. There is no function " + name + ".");
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.model.activation;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+
+public enum ActivationFunctionsEnum implements ActivationFunction {
+    // Hyperbolic tangent, outputs in (-1, 1)
+    TANH {
+        @Override
+        double apply(double x) {
+            return Math.tanh(x);
+        }
+
+        @Override
+        public double derivativeByOutput(double output) {
+            return 1 - output * output;
+        }
+    },
+    // max(0, x)
+    RELU {
+        @Override
+        double apply(double x) {
+            return Math.max(0, x);
+        }
+
+        @Override
+        public double derivativeByOutput(double output) {
+            return output > 0 ? 1 : 0;
+        }
+    },
+    // x if x > 0, LEAKY_RELU_SLOPE * x otherwise
+    LEAKY_RELU {
+        @Override
+        double apply(double x) {
+            return x > 0 ? x : LEAKY_RELU_SLOPE * x;
+        }
+
+        @Override
+        public double derivativeByOutput(double output) {
+            return output > 0 ? 1 : LEAKY_RELU_SLOPE;
+        }
+    };
+
+    public static final double LEAKY_RELU_SLOPE = 0.01;
+
+    abstract double apply(double x);
+
+    public Matrix apply(Matrix input, Matrix output) {
+        checkDimensions(input, output);
+
+        for (int i = 0; i < input.N; ++i) {
+            int inputRowStart = input.offset + i * input.stride;
+            int outputRowStart = output.offset + i * output.stride;
+
+            for (int j = 0; j < input.M; ++j) {
+                output.values[outputRowStart + j] = apply(input.values[inputRowStart + j]);
+            }
+        }
+
+        return output;
+    }
+
+    // Function is calculated in double precision, result is rounded to float
+    public FloatMatrix apply(FloatMatrix input, FloatMatrix output) {
+        checkDimensions(input, output);
+
+        for (int i = 0; i < input.N; ++i) {
+            int inputRowStart = input.offset + i * input.stride;
+            int outputRowStart = output.offset + i * output.stride;
+
+            for (int j = 0; j < input.M; ++j) {
+                output.values[outputRowStart + j] = (float)apply(input.values[inputRowStart + j]);
+            }
+        }
+
+        return output;
+    }
+
+    private static void checkDimensions(FloatMatrix input, FloatMatrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for activation function calculation. Dimensions don't equal.");
+        }
+    }
+
+    private static void checkDimensions(Matrix input, Matrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for activation function calculation. Dimensions don't equal.");
+        }
+    }
+}
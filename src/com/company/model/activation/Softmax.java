@@ -0,0 +1,99 @@
+package com.company.model.activation;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+
+// e^(x[i]) / sum of e^(x[j]) by every node of sample. Outputs are probabilities of classes.
+// Function of whole layer, so it can be used only in output layer with cross-entropy loss
+public enum Softmax implements ActivationFunction {
+    SOFTMAX;
+
+    @Override
+    public Matrix apply(Matrix input, Matrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for softmax calculation. Dimensions don't equal.");
+        }
+
+        if (input.M == 1) {
+            applySoftmax(input.values, input.offset, input.stride, output.values, output.offset, output.stride, input.N);
+            return output;
+        }
+
+        for (int i = 0; i < input.N; ++i) {
+            applySoftmax(input.values, input.offset + i * input.stride, 1, output.values, output.offset + i * output.stride, 1, input.M);
+        }
+
+        return output;
+    }
+
+    @Override
+    public FloatMatrix apply(FloatMatrix input, FloatMatrix output) {
+        if (input.N != output.N || input.M != output.M) {
+            throw new IllegalArgumentException("Bad argument for softmax calculation. Dimensions don't equal.");
+        }
+
+        if (input.M == 1) {
+            applySoftmax(input.values, input.offset, input.stride, output.values, output.offset, output.stride, input.N);
+            return output;
+        }
+
+        for (int i = 0; i < input.N; ++i) {
+            applySoftmax(input.values, input.offset + i * input.stride, 1, output.values, output.offset + i * output.stride, 1, input.M);
+        }
+
+        return output;
+    }
+
+    // Derivative of node output by its own input A[i] * (1 - A[i]), derivatives by inputs of other nodes are -A[i] * A[j]
+    @Override
+    public double derivativeByOutput(double output) {
+        return output * (1 - output);
+    }
+
+    @Override
+    public boolean isElementWise() {
+        return false;
+    }
+
+    // Same as applySoftmax for doubles, sum is calculated in double precision
+    private static void applySoftmax(float[] input, int inputOffset, int inputStep, float[] output, int outputOffset, int outputStep, int length) {
+        float max = Float.NEGATIVE_INFINITY;
+
+        for (int k = 0; k < length; ++k) {
+            max = Math.max(max, input[inputOffset + k * inputStep]);
+        }
+
+        double sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            float exponent = (float)Math.exp(input[inputOffset + k * inputStep] - max);
+            output[outputOffset + k * outputStep] = exponent;
+            sum += exponent;
+        }
+
+        for (int k = 0; k < length; ++k) {
+            output[outputOffset + k * outputStep] = (float)(output[outputOffset + k * outputStep] / sum);
+        }
+    }
+
+    // Maximum is subtracted from every input, so exponents don't overflow
+    private static void applySoftmax(double[] input, int inputOffset, int inputStep, double[] output, int outputOffset, int outputStep, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int k = 0; k < length; ++k) {
+            max = Math.max(max, input[inputOffset + k * inputStep]);
+        }
+
+        double sum = 0;
+
+        for (int k = 0; k < length; ++k) {
+            double exponent = Math.exp(input[inputOffset + k * inputStep] - max);
+            output[outputOffset + k * outputStep] = exponent;
+            sum += exponent;
+        }
+
+        for (int k = 0; k < length; ++k) {
+            output[outputOffset + k * outputStep] /= sum;
+        }
+    }
+}
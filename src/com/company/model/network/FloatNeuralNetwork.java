@@ -0,0 +1,112 @@
+package com.company.model.network;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+import com.company.model.activation.ActivationFunction;
+
+// Single precision copy of neural network. It has the same options and parameters rounded to floats,
+// and calculates outputs by FloatMatrix operations. Parameters of original network are master copy:
+// they are trained in double precision and copied here by copyParametersFrom
+public class FloatNeuralNetwork {
+    // Options
+    public final int inputSize;
+    public final int outputSize;
+
+    // Current parameters values
+    public final FloatMatrix[] weights;
+    public final FloatMatrix[] biases;
+
+    // Activation function of every hidden layer and output layer, and error function of output
+    public final ActivationFunction[] activations;
+    public final LossFunction lossFunction;
+
+    public FloatNeuralNetwork(NeuralNetwork network) {
+        inputSize = network.inputSize;
+        outputSize = network.outputSize;
+        activations = network.activations.clone();
+        lossFunction = network.lossFunction;
+
+        weights = new FloatMatrix[network.weights.length];
+        biases = new FloatMatrix[network.biases.length];
+
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = new FloatMatrix(network.weights[i]);
+            biases[i] = new FloatMatrix(network.biases[i]);
+        }
+    }
+
+    // Sets parameters of network rounded to floats, storage isn't made again
+    // Throws exception if network has another structure
+    public FloatNeuralNetwork copyParametersFrom(NeuralNetwork network) {
+        if (network.weights.length != weights.length) {
+            throw new IllegalArgumentException("Bad argument for parameters copying. Layers quantities don't equal.");
+        }
+
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i].copyFrom(network.weights[i]);
+            biases[i].copyFrom(network.biases[i]);
+        }
+
+        return this;
+    }
+
+    public float[] calcOutputBy(float[] inputValues) {
+        return calcOutputInto(inputValues, new float[outputSize], FloatWorkspace.forThread(this));
+    }
+
+    // Calculates output to given array, using only buffers of workspace, so nothing is allocated.
+    // Every layer input and output stays in workspace until its next use
+    // Throws exception if arrays sizes don't match network input and output sizes, or workspace doesn't fit network
+    public float[] calcOutputInto(float[] inputValues, float[] outputValues, FloatWorkspace workspace) {
+        if (inputValues.length != inputSize || outputValues.length != outputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Arrays sizes don't match network input and output sizes.");
+        }
+
+        System.arraycopy(inputValues, 0, workspace.input.values, 0, inputSize);
+        FloatMatrix output = calcOutputInto(workspace);
+        System.arraycopy(output.values, 0, outputValues, 0, outputSize);
+
+        return outputValues;
+    }
+
+    // Calculates output by input, which is already in workspace.input. Returns output layer output of workspace
+    // Throws exception if workspace doesn't fit network
+    private FloatMatrix calcOutputInto(FloatWorkspace workspace) {
+        if (!workspace.fits(this)) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Workspace doesn't fit network.");
+        }
+
+        FloatMatrix previousLayerOutput = workspace.input;
+
+        for (int i = 0; i < weights.length; ++i) {
+            // Formula for layer output is W * A + B, where W - weights between current and next layers, B - biases
+            weights[i].multiplyVectorInto(previousLayerOutput, workspace.layersInputs[i]).add(biases[i]);
+            previousLayerOutput = activations[i].apply(workspace.layersInputs[i], workspace.layersOutputs[i]);
+        }
+
+        return previousLayerOutput;
+    }
+
+    // Every row of inputs is one input, every row of result is respective output
+    // Throws exception if inputs h-dimension doesn't match network input size
+    public FloatMatrix calcOutputBy(FloatMatrix inputs) {
+        if (inputs.M != inputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Inputs h-dimension doesn't match network input size.");
+        }
+
+        FloatMatrix previousLayerOutputs = inputs;
+
+        for (int i = 0; i < weights.length; ++i) {
+            // Layer output transposed is A^T * W^T + B^T, rows of A^T and W are multiplied without transposing
+            FloatMatrix layerInputs = previousLayerOutputs.multiplyTransposedRight(weights[i]).addToEachRow(biases[i]);
+            previousLayerOutputs = activations[i].apply(layerInputs, layerInputs);
+        }
+
+        return previousLayerOutputs;
+    }
+
+    // Same as calcOutputBy for double inputs, they are rounded to floats, outputs are returned as doubles
+    public Matrix calcOutputBy(Matrix inputs) {
+        return calcOutputBy(new FloatMatrix(inputs)).toMatrix();
+    }
+}
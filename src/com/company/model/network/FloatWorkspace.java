@@ -0,0 +1,90 @@
+package com.company.model.network;
+
+import com.company.model.FloatMatrix;
+
+// Preallocated buffers for single precision network calculations, the same as Workspace for FloatNeuralNetwork.
+// Workspace must not be shared by threads, use forThread to get the one which belongs to current thread
+public class FloatWorkspace {
+    private static final ThreadLocal<FloatWorkspace> threadWorkspace = new ThreadLocal<>();
+
+    private final int inputSize;
+    private final int[] layersSizes;
+
+    final FloatMatrix input;
+    final float[] output;
+    final FloatMatrix[] layersInputs; // Z(i) = W(i) * A(i - 1) + B(i)
+    final FloatMatrix[] layersOutputs; // A(i) = S(Z(i))
+    final FloatMatrix[] layersErrors; // Partial derivatives of error by Z(i), filled by gradient calculation
+
+    public FloatWorkspace(FloatNeuralNetwork network) {
+        inputSize = network.inputSize;
+        layersSizes = new int[network.weights.length];
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            layersSizes[i] = network.weights[i].N;
+        }
+
+        input = new FloatMatrix(inputSize, 1);
+        output = new float[network.outputSize];
+        layersInputs = new FloatMatrix[layersSizes.length];
+        layersOutputs = new FloatMatrix[layersSizes.length];
+        layersErrors = new FloatMatrix[layersSizes.length];
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            layersInputs[i] = new FloatMatrix(layersSizes[i], 1);
+            layersOutputs[i] = new FloatMatrix(layersSizes[i], 1);
+            layersErrors[i] = new FloatMatrix(layersSizes[i], 1);
+        }
+    }
+
+    // Workspace of current thread, which fits network. It's made again only if network has another structure
+    public static FloatWorkspace forThread(FloatNeuralNetwork network) {
+        FloatWorkspace workspace = threadWorkspace.get();
+
+        if (workspace == null || !workspace.fits(network)) {
+            workspace = new FloatWorkspace(network);
+            threadWorkspace.set(workspace);
+        }
+
+        return workspace;
+    }
+
+    public boolean fits(FloatNeuralNetwork network) {
+        if (network.inputSize != inputSize || network.weights.length != layersSizes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            if (network.weights[i].N != layersSizes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Network input of last calculation as inputSize x 1 matrix
+    public FloatMatrix getInput() {
+        return input;
+    }
+
+    // Buffer for network output
+    public float[] getOutput() {
+        return output;
+    }
+
+    // Input of layer i (nodes charges) of last calculation
+    public FloatMatrix getLayerInput(int i) {
+        return layersInputs[i];
+    }
+
+    // Output of layer i (nodes activations) of last calculation
+    public FloatMatrix getLayerOutput(int i) {
+        return layersOutputs[i];
+    }
+
+    // Buffer for partial derivatives of error by input of layer i
+    public FloatMatrix getLayerError(int i) {
+        return layersErrors[i];
+    }
+}
@@ -0,0 +1,74 @@
+package com.company.model.network;
+
+import com.company.model.activation.ActivationFunction;
+
+// Error of network output for one test
+public enum LossFunction {
+    // Sum of (A[i] - Y[i])^2. Output layer function must be element-wise
+    SQUARED_ERROR {
+        @Override
+        public double calcError(double[] output, double[] expectedOutput) {
+            double error = 0;
+
+            for (int i = 0; i < output.length; ++i) {
+                error += (output[i] - expectedOutput[i]) * (output[i] - expectedOutput[i]);
+            }
+
+            return error;
+        }
+
+        @Override
+        public double calcOutputLayerError(double[] output, double[] expectedOutput, ActivationFunction activation, double[] layerError) {
+            double error = 0;
+
+            // D = 2 * (A - Y) * F'(Z)
+            for (int i = 0; i < output.length; ++i) {
+                double difference = output[i] - expectedOutput[i];
+                error += difference * difference;
+                layerError[i] = 2 * difference * activation.derivativeByOutput(output[i]);
+            }
+
+            return error;
+        }
+    },
+    // -(sum of Y[i] * ln(A[i])). Output layer must be softmax, then derivative by output layer input is just A - Y
+    CROSS_ENTROPY {
+        @Override
+        public double calcError(double[] output, double[] expectedOutput) {
+            double error = 0;
+
+            for (int i = 0; i < output.length; ++i) {
+                if (expectedOutput[i] != 0) {
+                    error -= expectedOutput[i] * Math.log(Math.max(output[i], MIN_PROBABILITY));
+                }
+            }
+
+            return error;
+        }
+
+        @Override
+        public double calcOutputLayerError(double[] output, double[] expectedOutput, ActivationFunction activation, double[] layerError) {
+            // D = A - Y
+            for (int i = 0; i < output.length; ++i) {
+                layerError[i] = output[i] - expectedOutput[i];
+            }
+
+            return calcError(output, expectedOutput);
+        }
+    };
+
+    // Probabilities are bounded by it in logarithm, so error of confident wrong answer is big, but not infinite
+    private static final double MIN_PROBABILITY = 1e-15;
+
+    public abstract double calcError(double[] output, double[] expectedOutput);
+
+    // Writes partial derivatives of error by output layer input to layerError. Returns error
+    public abstract double calcOutputLayerError(double[] output, double[] expectedOutput, ActivationFunction activation, double[] layerError);
+
+    // Throws exception if loss function can't be used with activation function of output layer
+    void checkOutputActivation(ActivationFunction activation) {
+        if ((this == CROSS_ENTROPY) == activation.isElementWise()) {
+            throw new IllegalArgumentException("Cross-entropy loss must be used together with softmax output layer and vice versa.");
+        }
+    }
+}
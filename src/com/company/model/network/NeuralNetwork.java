@@ -2,7 +2,13 @@ package com.company.model.network;
 
 import com.company.model.Matrix;
 import com.company.model.RandomMatrix;
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.Sigmoid;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Scanner;
@@ -20,22 +26,99 @@ public class NeuralNetwork {
     public Matrix[] weights;
     public Matrix[] biases;
 
+    // Activation function of every hidden layer and output layer, and error function of output
+    public final ActivationFunction[] activations;
+    public final LossFunction lossFunction;
+
+    // Every layer has exact sigmoid activation, error is squared error
     // Throws exception if hiddenLayers is empty
     public NeuralNetwork(int inputSize, int outputSize, int[] hiddenLayersSizes) {
-        hiddenLayersCount = hiddenLayersSizes.length;
+        this(inputSize, outputSize, hiddenLayersSizes, sigmoidActivations(hiddenLayersSizes.length + 1), LossFunction.SQUARED_ERROR);
+    }
 
-        if (hiddenLayersCount == 0) {
-            throw new IllegalArgumentException("There is no way to create network without hidden layers.");
-        }
+    // activations - one function for every hidden layer and one for output layer
+    // Throws exception if hiddenLayers is empty, activations quantity doesn't match layers quantity,
+    // or output activation and loss function can't be used together (softmax goes only with cross-entropy)
+    public NeuralNetwork(int inputSize, int outputSize, int[] hiddenLayersSizes, ActivationFunction[] activations, LossFunction lossFunction) {
+        checkOptions(outputSize, hiddenLayersSizes, activations, lossFunction);
 
         this.inputSize = inputSize;
         this.outputSize = outputSize;
+        this.hiddenLayersCount = hiddenLayersSizes.length;
         this.hiddenLayersSizes = hiddenLayersSizes.clone();
+        this.activations = activations.clone();
+        this.lossFunction = lossFunction;
 
         fillParametersWithRandomValues();
     }
 
-    // Creates network by parameters which given in console
+    // Network with given parameters, which aren't copied and aren't filled with random values (see NeuralNetworkFormat.read)
+    // Throws exception if options are wrong like in constructor above, or parameters dimensions don't match layers sizes
+    NeuralNetwork(int inputSize, int outputSize, int[] hiddenLayersSizes, ActivationFunction[] activations, LossFunction lossFunction, Matrix[] weights, Matrix[] biases) {
+        checkOptions(outputSize, hiddenLayersSizes, activations, lossFunction);
+
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.hiddenLayersCount = hiddenLayersSizes.length;
+        this.hiddenLayersSizes = hiddenLayersSizes.clone();
+        this.activations = activations.clone();
+        this.lossFunction = lossFunction;
+
+        if (weights.length != hiddenLayersCount + 1 || biases.length != hiddenLayersCount + 1) {
+            throw new IllegalArgumentException("Parameters quantity doesn't match layers quantity.");
+        }
+
+        for (int i = 0; i <= hiddenLayersCount; ++i) {
+            int layerSize = i < hiddenLayersCount ? hiddenLayersSizes[i] : outputSize;
+            int previousLayerSize = i > 0 ? hiddenLayersSizes[i - 1] : inputSize;
+
+            if (weights[i].N != layerSize || weights[i].M != previousLayerSize || biases[i].N != layerSize || biases[i].M != 1) {
+                throw new IllegalArgumentException("Parameters dimensions don't match layers sizes.");
+            }
+        }
+
+        this.weights = weights;
+        this.biases = biases;
+    }
+
+    // Reads network from binary file of NeuralNetworkFormat
+    // Throws exception if file can't be read or isn't network file
+    public static NeuralNetwork load(String path) throws IOException {
+        return NeuralNetworkFormat.read(Path.of(path));
+    }
+
+    // Writes network to binary file of NeuralNetworkFormat, file is replaced if it exists
+    public void save(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            NeuralNetworkFormat.write(this, channel);
+        }
+    }
+
+    private static void checkOptions(int outputSize, int[] hiddenLayersSizes, ActivationFunction[] activations, LossFunction lossFunction) {
+        int hiddenLayersCount = hiddenLayersSizes.length;
+
+        if (hiddenLayersCount == 0) {
+            throw new IllegalArgumentException("There is no way to create network without hidden layers.");
+        }
+
+        if (activations.length != hiddenLayersCount + 1) {
+            throw new IllegalArgumentException("Activation functions quantity doesn't match layers quantity.");
+        }
+
+        for (int i = 0; i < hiddenLayersCount; ++i) {
+            if (!activations[i].isElementWise()) {
+                throw new IllegalArgumentException("Function of whole layer (softmax) can be used only in output layer.");
+            }
+        }
+
+        if (!activations[hiddenLayersCount].isElementWise() && outputSize < 2) {
+            throw new IllegalArgumentException("Softmax output layer must have at least two nodes.");
+        }
+
+        lossFunction.checkOutputActivation(activations[hiddenLayersCount]);
+    }
+
+    // Creates network by parameters which given in console. Text is parsed slowly, use load for binary network file
     public NeuralNetwork(int inputSize, int outputSize, int[] hiddenLayersSizes, String separator) {
         hiddenLayersCount = hiddenLayersSizes.length;
 
@@ -46,6 +129,8 @@ public class NeuralNetwork {
         this.inputSize = inputSize;
         this.outputSize = outputSize;
         this.hiddenLayersSizes = hiddenLayersSizes.clone();
+        activations = sigmoidActivations(hiddenLayersCount + 1);
+        lossFunction = LossFunction.SQUARED_ERROR;
 
         fillParametersWithRandomValues();
 
@@ -72,7 +157,7 @@ public class NeuralNetwork {
 
             for (int j = 0; j < weights[i].N; ++j) {
                 for (int k = 0; k < weights[i].M; ++k) {
-                    weights[i].values[j][k] = matrix.get(j)[k];
+                    weights[i].set(j, k, matrix.get(j)[k]);
                 }
             }
 
@@ -96,7 +181,7 @@ public class NeuralNetwork {
 
             for (int j = 0; j < biases[i].N; ++j) {
                 for (int k = 0; k < biases[i].M; ++k) {
-                    biases[i].values[j][k] = matrix.get(j)[k];
+                    biases[i].set(j, k, matrix.get(j)[k]);
                 }
             }
         }
@@ -108,8 +193,12 @@ public class NeuralNetwork {
         outputSize = network.outputSize;
         hiddenLayersCount = network.hiddenLayersCount;
         hiddenLayersSizes = network.hiddenLayersSizes.clone();
+        activations = network.activations.clone();
+        lossFunction = network.lossFunction;
 
-        fillParametersWithRandomValues();
+        // Parameters are copied without random filling
+        weights = new Matrix[network.weights.length];
+        biases = new Matrix[network.biases.length];
 
         for (int i = 0; i < weights.length; ++i) {
             weights[i] = new Matrix(network.weights[i]);
@@ -120,6 +209,18 @@ public class NeuralNetwork {
         }
     }
 
+    // Creates network with the same options as this, but new random parameters
+    public NeuralNetwork withRandomParameters() {
+        return new NeuralNetwork(inputSize, outputSize, hiddenLayersSizes, activations, lossFunction);
+    }
+
+    private static ActivationFunction[] sigmoidActivations(int layersCount) {
+        ActivationFunction[] activations = new ActivationFunction[layersCount];
+        Arrays.fill(activations, Sigmoid.EXACT);
+
+        return activations;
+    }
+
     private void fillParametersWithRandomValues() {
         biases = new Matrix[hiddenLayersCount + 1];
         weights = new Matrix[hiddenLayersCount + 1];
@@ -140,23 +241,73 @@ public class NeuralNetwork {
     }
 
     public double[] calcOutputBy(double[] inputValues) {
-        Matrix previousLayerOutput = new Matrix(inputSize, 1, inputValues);
+        return calcOutputInto(inputValues, new double[outputSize], Workspace.forThread(this));
+    }
 
-        for (int i = 0; i < hiddenLayersCount; ++i) {
+    // Calculates output to given array, using only buffers of workspace, so nothing is allocated.
+    // Every layer input and output stays in workspace until its next use
+    // Throws exception if arrays sizes don't match network input and output sizes, or workspace doesn't fit network
+    public double[] calcOutputInto(double[] inputValues, double[] outputValues, Workspace workspace) {
+        if (inputValues.length != inputSize || outputValues.length != outputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Arrays sizes don't match network input and output sizes.");
+        }
+
+        if (!workspace.fits(this)) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Workspace doesn't fit network.");
+        }
+
+        System.arraycopy(inputValues, 0, workspace.input.values, 0, inputSize);
+        Matrix previousLayerOutput = workspace.input;
+
+        for (int i = 0; i < weights.length; ++i) {
             // Formula for layer output is W * A + B, where W - weights between current and next layers, B - biases
-            previousLayerOutput = Matrix.sigmoidOf(weights[i].multiply(previousLayerOutput).plus(biases[i]));
+            weights[i].multiplyInto(previousLayerOutput, workspace.layersInputs[i]).add(biases[i]);
+            previousLayerOutput = activations[i].apply(workspace.layersInputs[i], workspace.layersOutputs[i]);
         }
 
-        // Formula for layer output is W * A + B, where W - weights between current and next layers, B - biases
-        Matrix outputMatrix = Matrix.sigmoidOf(weights[hiddenLayersCount].multiply(previousLayerOutput).plus(biases[hiddenLayersCount]));
+        System.arraycopy(previousLayerOutput.values, 0, outputValues, 0, outputSize);
+
+        return outputValues;
+    }
+
+    // Calculates outputs for many inputs at once. Every layer is one matrix by matrix multiplication for the whole batch
+    // Throws exception if some input size doesn't match network input size
+    public double[][] calcOutputBy(double[][] inputsValues) {
+        Matrix inputs = new Matrix(inputsValues.length, inputSize);
+
+        for (int i = 0; i < inputsValues.length; ++i) {
+            if (inputsValues[i].length != inputSize) {
+                throw new IllegalArgumentException("Bad argument for network output calculation. Input size doesn't match network input size.");
+            }
+
+            System.arraycopy(inputsValues[i], 0, inputs.values, i * inputSize, inputSize);
+        }
 
-        // Convert matrix to array
-        double[] output = new double[outputSize];
+        Matrix outputs = calcOutputBy(inputs);
+        double[][] outputsValues = new double[inputsValues.length][];
 
-        for (int i = 0; i < outputSize; ++i) {
-            output[i] = outputMatrix.values[i][0];
+        for (int i = 0; i < outputsValues.length; ++i) {
+            outputsValues[i] = outputs.row(i).toArray();
+        }
+
+        return outputsValues;
+    }
+
+    // Every row of inputs is one input, every row of result is respective output
+    // Throws exception if inputs h-dimension doesn't match network input size
+    public Matrix calcOutputBy(Matrix inputs) {
+        if (inputs.M != inputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Inputs h-dimension doesn't match network input size.");
+        }
+
+        Matrix previousLayerOutputs = inputs;
+
+        for (int i = 0; i < weights.length; ++i) {
+            // Layer output transposed is A^T * W^T + B^T, rows of A^T and W are multiplied without transposing
+            Matrix layerInputs = previousLayerOutputs.multiplyTransposedRight(weights[i]).addToEachRow(biases[i]);
+            previousLayerOutputs = activations[i].apply(layerInputs, layerInputs);
         }
 
-        return output;
+        return previousLayerOutputs;
     }
 }
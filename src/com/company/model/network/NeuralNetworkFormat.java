@@ -0,0 +1,215 @@
+package com.company.model.network;
+
+import com.company.model.Matrix;
+import com.company.model.activation.ActivationFunction;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+Binary file of neural network (little-endian):
+
+  int MAGIC, int VERSION, int input size, int output size, int hidden layers quantity, int size of every hidden layer
+  names of activation function of every layer and of loss function: int bytes quantity, UTF-8 bytes
+  parameters layer by layer: weights (N x M doubles row by row), then biases (N doubles)
+
+Parameters are raw doubles, so they are written and read without formatting and parsing, and file size is 8 bytes per parameter.
+Network is saved and loaded by NeuralNetwork.save and NeuralNetwork.load, checkpoints of training have the same format.
+ */
+public final class NeuralNetworkFormat {
+    public static final int MAGIC = 0x4E4E4250;
+    public static final int VERSION = 1;
+
+    // Parameters are written by parts of this size, so whole file is never kept in memory
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private NeuralNetworkFormat() {
+    }
+
+    // Writes network to channel from its current position
+    public static void write(NeuralNetwork network, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, headerSize(network))).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(network.inputSize).putInt(network.outputSize).putInt(network.hiddenLayersCount);
+
+        for (int size : network.hiddenLayersSizes) {
+            buffer.putInt(size);
+        }
+
+        for (int i = 0; i < network.activations.length; ++i) {
+            putName(buffer, network.activations[i].name());
+        }
+
+        putName(buffer, network.lossFunction.name());
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            putParameters(buffer, network.weights[i].values, network.weights[i].offset, network.weights[i].stride, network.weights[i].N, network.weights[i].M, channel);
+            putParameters(buffer, network.biases[i].values, network.biases[i].offset, network.biases[i].stride, network.biases[i].N, network.biases[i].M, channel);
+        }
+
+        writeBuffer(buffer, channel);
+    }
+
+    // Reads whole file to buffer by channel, so parameters are copied straight to their matrices without parsing.
+    // File isn't mapped, so it's released when method returns and may be overwritten or deleted at once (mapping lives until GC)
+    // Throws exception if file isn't network file of supported version, is shorter than its header says or is corrupted
+    public static NeuralNetwork read(Path path) throws IOException {
+        ByteBuffer file;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Network file " + path + " is too large.");
+            }
+
+            file = ByteBuffer.allocate((int)channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Channel may read less than requested, file, which is shortened meanwhile, is checked by header below
+            while (file.hasRemaining()) {
+                if (channel.read(file) < 0) {
+                    break;
+                }
+            }
+
+            file.flip();
+        }
+
+        try {
+            if (file.getInt() != MAGIC) {
+                throw new IOException("File " + path + " isn't network file.");
+            }
+
+            int version = file.getInt();
+
+            if (version != VERSION) {
+                throw new IOException("Network file " + path + " has unsupported version " + version + ".");
+            }
+
+            int inputSize = file.getInt();
+            int outputSize = file.getInt();
+            int[] hiddenLayersSizes = new int[getLength(file, Integer.BYTES)];
+
+            for (int i = 0; i < hiddenLayersSizes.length; ++i) {
+                hiddenLayersSizes[i] = file.getInt();
+            }
+
+            ActivationFunction[] activations = new ActivationFunction[hiddenLayersSizes.length + 1];
+
+            for (int i = 0; i < activations.length; ++i) {
+                activations[i] = ActivationFunction.valueOf(getName(file));
+            }
+
+            LossFunction lossFunction = LossFunction.valueOf(getName(file));
+
+            Matrix[] weights = new Matrix[activations.length];
+            Matrix[] biases = new Matrix[activations.length];
+
+            for (int i = 0; i < weights.length; ++i) {
+                int layerSize = i < hiddenLayersSizes.length ? hiddenLayersSizes[i] : outputSize;
+                int previousLayerSize = i > 0 ? hiddenLayersSizes[i - 1] : inputSize;
+
+                weights[i] = getMatrix(file, layerSize, previousLayerSize);
+                biases[i] = getMatrix(file, layerSize, 1);
+            }
+
+            return new NeuralNetwork(inputSize, outputSize, hiddenLayersSizes, activations, lossFunction, weights, biases);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Network file " + path + " is shorter than its header says.", e);
+        } catch (IllegalArgumentException | NegativeArraySizeException e) {
+            // Unknown function names and bad sizes are rejected by valueOf and NeuralNetwork
+            throw new IOException("Network file " + path + " is corrupted.", e);
+        }
+    }
+
+    // Size of network file in bytes
+    public static long sizeOf(NeuralNetwork network) {
+        long parametersCount = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            parametersCount += (long)network.weights[i].N * network.weights[i].M + network.biases[i].N;
+        }
+
+        return headerSize(network) + parametersCount * Double.BYTES;
+    }
+
+    private static int headerSize(NeuralNetwork network) {
+        int size = (5 + network.hiddenLayersCount) * Integer.BYTES;
+
+        for (int i = 0; i < network.activations.length; ++i) {
+            size += Integer.BYTES + network.activations[i].name().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        return size + Integer.BYTES + network.lossFunction.name().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static String getName(ByteBuffer file) {
+        byte[] bytes = new byte[getLength(file, Byte.BYTES)];
+        file.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Quantity of elements, which follow it, is checked before array is allocated, so corrupted length can't take much memory
+    private static int getLength(ByteBuffer file, int elementBytes) {
+        int length = file.getInt();
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Bad argument for network reading. Length is negative.");
+        }
+
+        if (length > file.remaining() / elementBytes) {
+            throw new BufferUnderflowException();
+        }
+
+        return length;
+    }
+
+    private static Matrix getMatrix(ByteBuffer file, int N, int M) {
+        if (file.remaining() < (long)N * M * Double.BYTES) {
+            throw new BufferUnderflowException();
+        }
+
+        Matrix matrix = new Matrix(N, M);
+        file.asDoubleBuffer().get(matrix.values);
+        file.position(file.position() + N * M * Double.BYTES);
+
+        return matrix;
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    // Puts N x M matrix row by row, buffer is written to channel every time it's full
+    private static void putParameters(ByteBuffer buffer, double[] values, int offset, int stride, int N, int M, WritableByteChannel channel) throws IOException {
+        for (int i = 0; i < N; ++i) {
+            for (int j = 0; j < M; ) {
+                if (buffer.remaining() < Double.BYTES) {
+                    writeBuffer(buffer, channel);
+                }
+
+                int count = Math.min(M - j, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().put(values, offset + i * stride + j, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                j += count;
+            }
+        }
+    }
+
+    private static void writeBuffer(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
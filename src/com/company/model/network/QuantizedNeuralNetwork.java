@@ -0,0 +1,211 @@
+package com.company.model.network;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+import com.company.model.QuantizedMatrix;
+import com.company.model.activation.ActivationFunction;
+
+/*
+Inference-only int8 copy of trained neural network:
+
+  Q(A(i - 1)) = round(A(i - 1) / inputScale(i))                     - layer input quantized by calibrated scale
+  Z(i) = weightsScales(i) * inputScale(i) * (Q(W(i)) * Q(A(i - 1))) + B(i)
+  A(i) = F(i)(Z(i))
+
+Weights are int8 with one scale per row (see QuantizedMatrix), products are integer dot products.
+Biases, layers inputs and activation functions are float, output is dequantized to doubles.
+Scale of every layer input is calibrated once by maximal absolute value on a sample of tests,
+so inputs out of calibrated range are clamped.
+ */
+public class QuantizedNeuralNetwork {
+    private static final ThreadLocal<Buffers> threadBuffers = new ThreadLocal<>();
+
+    // Options
+    public final int inputSize;
+    public final int outputSize;
+
+    // Quantized parameters and calibrated scales of layers inputs
+    public final QuantizedMatrix[] weights;
+    public final FloatMatrix[] biases;
+    public final float[] inputsScales;
+
+    // Activation function of every hidden layer and output layer, and error function of output
+    public final ActivationFunction[] activations;
+    public final LossFunction lossFunction;
+
+    private QuantizedNeuralNetwork(NeuralNetwork network, float[] inputsScales) {
+        inputSize = network.inputSize;
+        outputSize = network.outputSize;
+        activations = network.activations.clone();
+        lossFunction = network.lossFunction;
+        this.inputsScales = inputsScales;
+
+        weights = new QuantizedMatrix[network.weights.length];
+        biases = new FloatMatrix[network.biases.length];
+
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = new QuantizedMatrix(network.weights[i]);
+            biases[i] = new FloatMatrix(network.biases[i]);
+        }
+    }
+
+    // Quantizes network, scales of layers inputs are calibrated by maximal absolute values of layers inputs,
+    // when network calculates outputs by calibration inputs (every row is one input, see TestSet.sampleInputs)
+    // Throws exception if there are no calibration inputs, or their h-dimension doesn't match network input size
+    public static QuantizedNeuralNetwork quantize(NeuralNetwork network, Matrix calibrationInputs) {
+        if (calibrationInputs.N == 0 || calibrationInputs.M != network.inputSize) {
+            throw new IllegalArgumentException("Bad argument for network quantization. Calibration inputs don't match network input size.");
+        }
+
+        double[] maxAbsInputs = new double[network.weights.length];
+        Workspace workspace = new Workspace(network);
+        double[] input = new double[network.inputSize];
+
+        for (int t = 0; t < calibrationInputs.N; ++t) {
+            System.arraycopy(calibrationInputs.values, calibrationInputs.offset + t * calibrationInputs.stride, input, 0, input.length);
+
+            // Forward pass keeps every layer output in workspace, output of layer i is input of layer i + 1
+            network.calcOutputInto(input, workspace.getOutput(), workspace);
+
+            for (double value : input) {
+                maxAbsInputs[0] = Math.max(maxAbsInputs[0], Math.abs(value));
+            }
+
+            for (int i = 1; i < maxAbsInputs.length; ++i) {
+                Matrix previousLayerOutput = workspace.getLayerOutput(i - 1);
+
+                for (int v = 0; v < previousLayerOutput.N; ++v) {
+                    maxAbsInputs[i] = Math.max(maxAbsInputs[i], Math.abs(previousLayerOutput.values[v]));
+                }
+            }
+        }
+
+        float[] inputsScales = new float[maxAbsInputs.length];
+
+        for (int i = 0; i < inputsScales.length; ++i) {
+            inputsScales[i] = QuantizedMatrix.scaleOf(maxAbsInputs[i]);
+        }
+
+        return new QuantizedNeuralNetwork(network, inputsScales);
+    }
+
+    public double[] calcOutputBy(double[] inputValues) {
+        return calcOutputInto(inputValues, new double[outputSize]);
+    }
+
+    // Calculates output to given array, using only buffers of current thread, so nothing is allocated
+    // Throws exception if arrays sizes don't match network input and output sizes
+    public double[] calcOutputInto(double[] inputValues, double[] outputValues) {
+        if (inputValues.length != inputSize || outputValues.length != outputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Arrays sizes don't match network input and output sizes.");
+        }
+
+        Buffers buffers = getThreadBuffers();
+
+        for (int k = 0; k < inputSize; ++k) {
+            buffers.input.values[k] = (float)inputValues[k];
+        }
+
+        FloatMatrix previousLayerOutput = buffers.input;
+
+        for (int i = 0; i < weights.length; ++i) {
+            QuantizedMatrix.quantize(previousLayerOutput, inputsScales[i], buffers.quantizedInput);
+
+            FloatMatrix layerInput = weights[i].multiplyVectorInto(buffers.quantizedInput, inputsScales[i], buffers.layersValues[i]).add(biases[i]);
+            previousLayerOutput = activations[i].apply(layerInput, layerInput);
+        }
+
+        for (int k = 0; k < outputSize; ++k) {
+            outputValues[k] = previousLayerOutput.values[k];
+        }
+
+        return outputValues;
+    }
+
+    // Every row of inputs is one input, every row of result is respective output
+    // Throws exception if inputs h-dimension doesn't match network input size
+    public Matrix calcOutputBy(Matrix inputs) {
+        if (inputs.M != inputSize) {
+            throw new IllegalArgumentException("Bad argument for network output calculation. Inputs h-dimension doesn't match network input size.");
+        }
+
+        Matrix outputs = new Matrix(inputs.N, outputSize);
+        double[] input = new double[inputSize];
+        double[] output = new double[outputSize];
+
+        for (int i = 0; i < inputs.N; ++i) {
+            System.arraycopy(inputs.values, inputs.offset + i * inputs.stride, input, 0, inputSize);
+            calcOutputInto(input, output);
+            System.arraycopy(output, 0, outputs.values, i * outputSize, outputSize);
+        }
+
+        return outputs;
+    }
+
+    // Memory, which parameters and scales take
+    public long getParametersBytesCount() {
+        long bytesCount = (long)inputsScales.length * Float.BYTES;
+
+        for (int i = 0; i < weights.length; ++i) {
+            bytesCount += weights[i].getBytesCount() + (long)biases[i].N * Float.BYTES;
+        }
+
+        return bytesCount;
+    }
+
+    // Memory, which double parameters of network take
+    public static long getParametersBytesCount(NeuralNetwork network) {
+        long bytesCount = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            bytesCount += ((long)network.weights[i].N * network.weights[i].M + network.biases[i].N) * Double.BYTES;
+        }
+
+        return bytesCount;
+    }
+
+    private Buffers getThreadBuffers() {
+        Buffers buffers = threadBuffers.get();
+
+        if (buffers == null || !buffers.fits(this)) {
+            buffers = new Buffers(this);
+            threadBuffers.set(buffers);
+        }
+
+        return buffers;
+    }
+
+    // Buffers of one thread for output calculation, they are made again only for network of another structure
+    private static class Buffers {
+        final FloatMatrix input;
+        final byte[] quantizedInput;
+        final FloatMatrix[] layersValues;
+
+        Buffers(QuantizedNeuralNetwork network) {
+            int maxLayerInputSize = network.inputSize;
+            layersValues = new FloatMatrix[network.weights.length];
+
+            for (int i = 0; i < network.weights.length; ++i) {
+                maxLayerInputSize = Math.max(maxLayerInputSize, network.weights[i].M);
+                layersValues[i] = new FloatMatrix(network.weights[i].N, 1);
+            }
+
+            input = new FloatMatrix(network.inputSize, 1);
+            quantizedInput = new byte[maxLayerInputSize];
+        }
+
+        boolean fits(QuantizedNeuralNetwork network) {
+            if (input.N != network.inputSize || layersValues.length != network.weights.length) {
+                return false;
+            }
+
+            for (int i = 0; i < layersValues.length; ++i) {
+                if (layersValues[i].N != network.weights[i].N || quantizedInput.length < network.weights[i].M) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.model.network;
+
+import com.company.model.Matrix;
+
+// Preallocated buffers for network calculations. Reused by every call, so steady-state calculations don't allocate.
+// Workspace must not be shared by threads, use forThread to get the one which belongs to current thread
+public class Workspace {
+    private static final ThreadLocal<Workspace> threadWorkspace = new ThreadLocal<>();
+
+    private final int inputSize;
+    private final int[] layersSizes;
+
+    final Matrix input;
+    final double[] output;
+    final Matrix[] layersInputs; // Z(i) = W(i) * A(i - 1) + B(i)
+    final Matrix[] layersOutputs; // A(i) = S(Z(i))
+    final Matrix[] layersErrors; // Partial derivatives of error by Z(i), filled by gradient calculation
+
+    public Workspace(NeuralNetwork network) {
+        inputSize = network.inputSize;
+        layersSizes = new int[network.weights.length];
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            layersSizes[i] = network.weights[i].N;
+        }
+
+        input = new Matrix(inputSize, 1);
+        output = new double[network.outputSize];
+        layersInputs = new Matrix[layersSizes.length];
+        layersOutputs = new Matrix[layersSizes.length];
+        layersErrors = new Matrix[layersSizes.length];
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            layersInputs[i] = new Matrix(layersSizes[i], 1);
+            layersOutputs[i] = new Matrix(layersSizes[i], 1);
+            layersErrors[i] = new Matrix(layersSizes[i], 1);
+        }
+    }
+
+    // Workspace of current thread, which fits network. It's made again only if network has another structure
+    public static Workspace forThread(NeuralNetwork network) {
+        Workspace workspace = threadWorkspace.get();
+
+        if (workspace == null || !workspace.fits(network)) {
+            workspace = new Workspace(network);
+            threadWorkspace.set(workspace);
+        }
+
+        return workspace;
+    }
+
+    public boolean fits(NeuralNetwork network) {
+        if (network.inputSize != inputSize || network.weights.length != layersSizes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < layersSizes.length; ++i) {
+            if (network.weights[i].N != layersSizes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Network input of last calculation as inputSize x 1 matrix
+    public Matrix getInput() {
+        return input;
+    }
+
+    // Buffer for network output
+    public double[] getOutput() {
+        return output;
+    }
+
+    // Input of layer i (nodes charges) of last calculation
+    public Matrix getLayerInput(int i) {
+        return layersInputs[i];
+    }
+
+    // Output of layer i (nodes activations) of last calculation
+    public Matrix getLayerOutput(int i) {
+        return layersOutputs[i];
+    }
+
+    // Buffer for partial derivatives of error by input of layer i
+    public Matrix getLayerError(int i) {
+        return layersErrors[i];
+    }
+}
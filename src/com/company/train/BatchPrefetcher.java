@@ -0,0 +1,215 @@
+package com.company.train;
+
+import com.company.model.FloatMatrix;
+import com.company.model.Matrix;
+import com.company.model.Precision;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+Background stage, which takes tests of test set and packs them to batches, while trainer calculates previous batches.
+
+  producer thread: free batch -> tests of test set are copied to its rows -> ready queue (at most prefetchedBatchesCount batches)
+  trainer thread:  ready queue -> gradients calculation -> release -> free batches
+
+Batches are made once and are reused by every pass, so reading, decoding and packing of tests don't wait for gradients
+and allocate no batch buffers. In FLOAT precision tests are rounded to floats while they are packed.
+ */
+public class BatchPrefetcher implements AutoCloseable {
+    // Tests of batch are rows of inputs and correctOutputs from 0 (inclusive) to size (exclusive).
+    // Batch has only matrices of prefetcher precision, others are null
+    public static class Batch {
+        public final Matrix inputs;
+        public final Matrix correctOutputs;
+        public final FloatMatrix floatInputs;
+        public final FloatMatrix floatCorrectOutputs;
+        private final TestSet.Test[] tests;
+        private int size;
+
+        Batch(int batchSize, int inputSize, int outputSize, Precision precision) {
+            boolean isFloat = precision == Precision.FLOAT;
+
+            inputs = isFloat ? null : new Matrix(batchSize, inputSize);
+            correctOutputs = isFloat ? null : new Matrix(batchSize, outputSize);
+            floatInputs = isFloat ? new FloatMatrix(batchSize, inputSize) : null;
+            floatCorrectOutputs = isFloat ? new FloatMatrix(batchSize, outputSize) : null;
+            tests = new TestSet.Test[batchSize];
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    // Marks end of pass
+    private static final Batch END = new Batch(0, 0, 0, Precision.DOUBLE);
+
+    private final TestSet testSet;
+    private final BlockingQueue<Batch> readyBatches;
+    private final BlockingQueue<Batch> freeBatches;
+    private final ExecutorService producer;
+
+    private volatile RuntimeException producerException;
+
+    // Batches have double matrices
+    // Throws exception if batchSize or prefetchedBatchesCount isn't positive
+    public BatchPrefetcher(TestSet testSet, int batchSize, int prefetchedBatchesCount, int inputSize, int outputSize) {
+        this(testSet, batchSize, prefetchedBatchesCount, inputSize, outputSize, Precision.DOUBLE);
+    }
+
+    // Batches have matrices of given precision
+    // Throws exception if batchSize or prefetchedBatchesCount isn't positive
+    public BatchPrefetcher(TestSet testSet, int batchSize, int prefetchedBatchesCount, int inputSize, int outputSize, Precision precision) {
+        if (batchSize <= 0 || prefetchedBatchesCount <= 0) {
+            throw new IllegalArgumentException("Bad argument for batch prefetcher. Batch size and batches count must be positive.");
+        }
+
+        this.testSet = testSet;
+
+        // Ready batches with packed one, and one batch of trainer. Ready queue has place for END after all of them
+        readyBatches = new ArrayBlockingQueue<>(prefetchedBatchesCount + 1);
+        freeBatches = new ArrayBlockingQueue<>(prefetchedBatchesCount + 1);
+
+        for (int i = 0; i < prefetchedBatchesCount + 1; ++i) {
+            freeBatches.add(new Batch(batchSize, inputSize, outputSize, precision));
+        }
+
+        producer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts new pass through shuffled test set. Previous pass must be read to its end by nextBatch
+    public void startPass() {
+        producer.execute(this::producePass);
+    }
+
+    // Next batch of pass, null if pass ended. Batch must be released, when it isn't needed anymore
+    // Throws exception if producer failed to take tests
+    public Batch nextBatch() {
+        Batch batch;
+
+        try {
+            batch = readyBatches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Waiting for next batch is interrupted.", e);
+        }
+
+        if (batch == END) {
+            if (producerException != null) {
+                RuntimeException exception = producerException;
+                producerException = null;
+                throw exception;
+            }
+
+            return null;
+        }
+
+        return batch;
+    }
+
+    // Gives batch back, so it may be packed again
+    public void release(Batch batch) {
+        freeBatches.add(batch);
+    }
+
+    // Releases the rest of current pass up to its end, so next pass starts from its own first batch.
+    // Reader calls it instead of reading pass to its end, when it stops in the middle. Producer exception of the pass is dropped
+    public void skipPass() {
+        while (true) {
+            Batch batch;
+
+            try {
+                batch = readyBatches.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Waiting for end of pass is interrupted.", e);
+            }
+
+            if (batch == END) {
+                producerException = null;
+                return;
+            }
+
+            release(batch);
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.shutdownNow();
+    }
+
+    private void producePass() {
+        Batch batch = null;
+
+        try {
+            testSet.clearTestsQueue();
+
+            while (true) {
+                batch = freeBatches.take();
+                batch.size = testSet.nextTests(batch.tests);
+
+                if (batch.size == 0) {
+                    break;
+                }
+
+                pack(batch);
+                readyBatches.put(batch);
+                batch = null;
+            }
+
+            freeBatches.add(batch);
+            readyBatches.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Batch, which wasn't packed, goes back, so next pass has all batches
+            if (batch != null) {
+                freeBatches.add(batch);
+            }
+
+            producerException = e;
+            readyBatches.add(END);
+        }
+    }
+
+    // Copies tests to rows of batch matrices, references to tests aren't kept
+    private static void pack(Batch batch) {
+        for (int i = 0; i < batch.size; ++i) {
+            TestSet.Test test = batch.tests[i];
+
+            if (batch.inputs != null) {
+                if (test.input().length != batch.inputs.M || test.correctOutput().length != batch.correctOutputs.M) {
+                    throw new IllegalArgumentException("Bad argument for batch packing. Test size doesn't match batch rows sizes.");
+                }
+
+                System.arraycopy(test.input(), 0, batch.inputs.values, batch.inputs.offset + i * batch.inputs.stride, batch.inputs.M);
+                System.arraycopy(test.correctOutput(), 0, batch.correctOutputs.values, batch.correctOutputs.offset + i * batch.correctOutputs.stride, batch.correctOutputs.M);
+            } else {
+                if (test.input().length != batch.floatInputs.M || test.correctOutput().length != batch.floatCorrectOutputs.M) {
+                    throw new IllegalArgumentException("Bad argument for batch packing. Test size doesn't match batch rows sizes.");
+                }
+
+                packRow(test.input(), batch.floatInputs, i);
+                packRow(test.correctOutput(), batch.floatCorrectOutputs, i);
+            }
+
+            batch.tests[i] = null;
+        }
+    }
+
+    private static void packRow(double[] values, FloatMatrix matrix, int row) {
+        int rowStart = matrix.offset + row * matrix.stride;
+
+        for (int j = 0; j < values.length; ++j) {
+            matrix.values[rowStart + j] = (float)values[j];
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.company.train;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/*
+Test set in binary file, which is mapped to memory, so tests are read without parsing and live off-heap.
+
+File format (little-endian):
+
+  int MAGIC, int VERSION, int tests quantity, int input size, int output size
+  tests: input size floats of input, then output size floats of correct output
+
+Only order of tests is kept in heap. Every taken test is copied to new arrays of doubles, so trainers may keep it.
+ */
+public class MappedTestSet extends TestSet {
+    public static final int MAGIC = 0x54534554;
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    public final int inputSize;
+    public final int outputSize;
+
+    // File is mapped by chunks of whole tests, because one buffer can't be longer than 2 GB
+    private final FloatBuffer[] chunks;
+    private final int chunkTestsCount;
+    private final int[] order;
+    private final Random random = new Random();
+
+    // Throws exception if file isn't mapped test set
+    public MappedTestSet(String path) throws IOException {
+        this(readHeader(path));
+    }
+
+    private MappedTestSet(Header header) throws IOException {
+        super(header.inputSize, header.testsCount);
+
+        inputSize = header.inputSize;
+        outputSize = header.outputSize;
+
+        long testBytes = (long)(inputSize + outputSize) * Float.BYTES;
+        chunkTestsCount = (int)Math.max(1, Integer.MAX_VALUE / Math.max(Float.BYTES, testBytes));
+        chunks = new FloatBuffer[(size + chunkTestsCount - 1) / chunkTestsCount];
+
+        try (FileChannel channel = FileChannel.open(Path.of(header.path), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + size * testBytes) {
+                throw new IOException("Test set file " + header.path + " is shorter than its header says.");
+            }
+
+            for (int c = 0; c < chunks.length; ++c) {
+                long chunkSize = Math.min(chunkTestsCount, size - (long)c * chunkTestsCount) * testBytes;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (long)c * chunkTestsCount * testBytes, chunkSize)
+                        .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+
+        order = new int[size];
+
+        for (int i = 0; i < size; ++i) {
+            order[i] = i;
+        }
+
+        shuffleOrder();
+    }
+
+    // Writes tests of digits images CSV file (see TestSet.parseDigitsImage) to binary file, line by line
+    public static void convertDigitsImages(String csvPath, String binaryPath) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvPath));
+             FileChannel channel = FileChannel.open(Path.of(binaryPath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(HEADER_SIZE);
+
+            int testsCount = 0;
+            int inputSize = -1;
+            int outputSize = -1;
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Test test = parseDigitsImage(line);
+
+                if (inputSize < 0) {
+                    inputSize = test.input().length;
+                    outputSize = test.correctOutput().length;
+                } else if (test.input().length != inputSize) {
+                    throw new IOException("Line " + (testsCount + 1) + " of " + csvPath + " has another quantity of pixels.");
+                }
+
+                writeFloats(channel, buffer, test.input());
+                writeFloats(channel, buffer, test.correctOutput());
+                ++testsCount;
+            }
+
+            flush(channel, buffer);
+
+            // Header is written when quantity of tests is known
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(testsCount).putInt(Math.max(inputSize, 0)).putInt(Math.max(outputSize, 0)).flip();
+            channel.write(buffer, 0);
+        }
+    }
+
+    // Arguments: digits images CSV file, binary file
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MappedTestSet <csv> <binary>");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        convertDigitsImages(args[0], args[1]);
+        System.out.printf("Converted in %.1f s%n", (System.nanoTime() - startTime) / 1e9);
+    }
+
+    @Override
+    protected Test getTest(int index) {
+        int testIndex = order[index];
+        FloatBuffer chunk = chunks[testIndex / chunkTestsCount];
+        int position = (testIndex % chunkTestsCount) * (inputSize + outputSize);
+
+        double[] input = new double[inputSize];
+        double[] correctOutput = new double[outputSize];
+
+        for (int i = 0; i < inputSize; ++i) {
+            input[i] = chunk.get(position + i);
+        }
+
+        for (int i = 0; i < outputSize; ++i) {
+            correctOutput[i] = chunk.get(position + inputSize + i);
+        }
+
+        return new Test(input, correctOutput);
+    }
+
+    // Only order of tests is shuffled (Fisher-Yates), mapped tests stay in place
+    @Override
+    protected void shuffleTests() {
+        shuffleOrder();
+    }
+
+    // Tests indices are shuffled in place, constructor shuffles them by it too
+    private void shuffleOrder() {
+        for (int i = order.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    record Header(String path, int testsCount, int inputSize, int outputSize) {}
+
+    // Throws exception if file has no header of mapped test set or header has negative counts
+    static Header readHeader(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Test set file " + path + " has no header.");
+                }
+            }
+
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("File " + path + " isn't test set file.");
+            }
+
+            int version = header.getInt();
+
+            if (version != VERSION) {
+                throw new IOException("Test set file " + path + " has unknown version " + version + ".");
+            }
+
+            int testsCount = header.getInt();
+            int inputSize = header.getInt();
+            int outputSize = header.getInt();
+
+            if (testsCount < 0 || inputSize < 0 || outputSize < 0) {
+                throw new IOException("Test set file " + path + " has negative tests count or test size.");
+            }
+
+            return new Header(path, testsCount, inputSize, outputSize);
+        }
+    }
+
+    private static void writeFloats(FileChannel channel, ByteBuffer buffer, double[] values) throws IOException {
+        for (double value : values) {
+            if (buffer.remaining() < Float.BYTES) {
+                flush(channel, buffer);
+            }
+
+            buffer.putFloat((float)value);
+        }
+    }
+
+    // Writes buffer to the end of file
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,174 @@
+package com.company.train;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/*
+Test set in binary file of MappedTestSet format, which is read sequentially by chunks, so it may be larger than memory.
+
+Tests order is shuffled in two levels:
+
+  1. Chunks (chunkTestsCount consecutive tests) are read in random order, new one for every pass
+  2. Read tests go to shuffle buffer of shuffleBufferSize tests, and every next test is a random one from the buffer,
+     its place is taken by next read test
+
+So memory use is bounded by chunkTestsCount + shuffleBufferSize tests whatever file size is.
+Test may go out of buffer only after shuffleBufferSize tests, which were read before it, so buffer should be larger than chunk.
+ */
+public class StreamingTestSet extends TestSet implements Closeable {
+    public final int inputSize;
+    public final int outputSize;
+
+    private final FileChannel channel;
+    private final int chunkTestsCount;
+    private final int testBytes;
+    private final ByteBuffer chunk;
+    private final int[] chunksOrder;
+    private int nextChunkIndex;
+
+    private final TestSet.Test[] shuffleBuffer;
+    private int shuffleBufferFilling;
+
+    private final Random random = new Random();
+
+    // Throws exception if file isn't test set file, or chunkTestsCount or shuffleBufferSize isn't positive
+    public StreamingTestSet(String path, int chunkTestsCount, int shuffleBufferSize) throws IOException {
+        this(MappedTestSet.readHeader(path), chunkTestsCount, shuffleBufferSize);
+    }
+
+    private StreamingTestSet(MappedTestSet.Header header, int chunkTestsCount, int shuffleBufferSize) throws IOException {
+        super(header.inputSize(), header.testsCount());
+
+        if (chunkTestsCount <= 0 || shuffleBufferSize <= 0) {
+            throw new IllegalArgumentException("Bad argument for streaming test set. Chunk and shuffle buffer sizes must be positive.");
+        }
+
+        inputSize = header.inputSize();
+        outputSize = header.outputSize();
+
+        this.chunkTestsCount = chunkTestsCount;
+        testBytes = (inputSize + outputSize) * Float.BYTES;
+        chunk = ByteBuffer.allocateDirect(chunkTestsCount * testBytes).order(ByteOrder.LITTLE_ENDIAN);
+        chunksOrder = new int[(size + chunkTestsCount - 1) / chunkTestsCount];
+        shuffleBuffer = new TestSet.Test[shuffleBufferSize];
+
+        for (int c = 0; c < chunksOrder.length; ++c) {
+            chunksOrder[c] = c;
+        }
+
+        channel = FileChannel.open(Path.of(header.path()), StandardOpenOption.READ);
+
+        // Channel isn't kept by failed test set
+        try {
+            if (channel.size() < MappedTestSet.HEADER_SIZE + (long)size * testBytes) {
+                throw new IOException("Test set file " + header.path() + " is shorter than its header says.");
+            }
+
+            startPass();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Tests are read only one after another
+    @Override
+    public boolean isRandomAccess() {
+        return false;
+    }
+
+    // Tests are taken one after another (see TestSet.nextTest), so index is always index of next test of pass
+    @Override
+    protected Test getTest(int index) {
+        int bufferIndex = random.nextInt(shuffleBufferFilling);
+        Test test = shuffleBuffer[bufferIndex];
+        Test nextReadTest = readTest();
+
+        if (nextReadTest != null) {
+            shuffleBuffer[bufferIndex] = nextReadTest;
+        } else {
+            shuffleBuffer[bufferIndex] = shuffleBuffer[--shuffleBufferFilling];
+            shuffleBuffer[shuffleBufferFilling] = null;
+        }
+
+        return test;
+    }
+
+    @Override
+    protected void shuffleTests() {
+        startPass();
+    }
+
+    // Starts new pass through file with new chunks order and full shuffle buffer
+    private void startPass() {
+        for (int i = chunksOrder.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int swap = chunksOrder[i];
+            chunksOrder[i] = chunksOrder[j];
+            chunksOrder[j] = swap;
+        }
+
+        nextChunkIndex = 0;
+        chunk.clear().limit(0);
+
+        shuffleBufferFilling = 0;
+        for (Test test = null; shuffleBufferFilling < shuffleBuffer.length && (test = readTest()) != null; ) {
+            shuffleBuffer[shuffleBufferFilling++] = test;
+        }
+    }
+
+    // Next test of current chunk, next chunk is read when current one ends. Returns null if there are no chunks left
+    private Test readTest() {
+        if (!chunk.hasRemaining()) {
+            if (nextChunkIndex == chunksOrder.length) {
+                return null;
+            }
+
+            readChunk(chunksOrder[nextChunkIndex++]);
+        }
+
+        double[] input = new double[inputSize];
+        double[] correctOutput = new double[outputSize];
+
+        for (int i = 0; i < inputSize; ++i) {
+            input[i] = chunk.getFloat();
+        }
+
+        for (int i = 0; i < outputSize; ++i) {
+            correctOutput[i] = chunk.getFloat();
+        }
+
+        return new Test(input, correctOutput);
+    }
+
+    private void readChunk(int chunkIndex) {
+        int chunkTests = Math.min(chunkTestsCount, size - chunkIndex * chunkTestsCount);
+        long position = MappedTestSet.HEADER_SIZE + (long)chunkIndex * chunkTestsCount * testBytes;
+
+        chunk.clear().limit(chunkTests * testBytes);
+
+        try {
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("Test set file ends before its last test.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        chunk.flip();
+    }
+}
@@ -1,5 +1,7 @@
 package com.company.train;
 
+import com.company.model.Matrix;
+
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileReader;
@@ -7,7 +9,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 public class TestSet {
     private final int inputSize;
@@ -21,41 +22,116 @@ public class TestSet {
         this.inputSize = inputSize;
         this.answerFunction = answerFunction;
 
-        generateDigitsImagesTestSet("C:/Users/Айнур/Desktop/traindataset7819.txt");
+        generateDigitsImagesTestSet("C:/Users/Айнур/Desktop/traindataset7819.txt", 0, 1);
 //        generateBitmaskTestSet();
 
         size = tests.size();
     }
 
-    private void generateDigitsImagesTestSet(String path) {
-        ArrayList<String> lines = new ArrayList<>();
+    // Test set of digits images from CSV file (label and 784 pixels in every line)
+    public TestSet(String digitsImagesPath) {
+        this(digitsImagesPath, 0, 1);
+    }
+
+    // Test set of every shardsCount-th line of digits images file beginning from line shardIndex,
+    // so shards of one file with different indexes don't intersect
+    // Throws exception if shardIndex isn't in [0, shardsCount)
+    public TestSet(String digitsImagesPath, int shardIndex, int shardsCount) {
+        if (shardIndex < 0 || shardIndex >= shardsCount) {
+            throw new IllegalArgumentException("Bad argument for test set shard. Shard index must be in [0, shards count).");
+        }
+
+        this.answerFunction = null;
+
+        generateDigitsImagesTestSet(digitsImagesPath, shardIndex, shardsCount);
+
+        this.inputSize = tests.isEmpty() ? 0 : tests.getFirst().input().length;
+        size = tests.size();
+    }
+
+    // Test set of size tests, which subclass keeps itself (see getTest and shuffleTests)
+    protected TestSet(int inputSize, int size) {
+        this.inputSize = inputSize;
+        this.answerFunction = null;
+        this.size = size;
+    }
+
+    // Test set of given tests
+    public TestSet(List<Test> tests) {
+        this.inputSize = tests.isEmpty() ? 0 : tests.getFirst().input().length;
+        this.answerFunction = null;
+        this.tests.addAll(tests);
+
+        size = this.tests.size();
+    }
 
+    private void generateDigitsImagesTestSet(String path, int shardIndex, int shardsCount) {
+        // Lines are parsed one by one, so whole file is never kept in memory
         try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
             String nextLine = reader.readLine();
-            while (nextLine != null) {
-                lines.add(nextLine);
+            for (int lineIndex = 0; nextLine != null; ++lineIndex) {
+                if (lineIndex % shardsCount == shardIndex && !nextLine.isBlank()) {
+                    tests.add(parseDigitsImage(nextLine));
+                }
+
                 nextLine = reader.readLine();
             }
         } catch (IOException e) {
             System.out.println("Something wrong with dataset reading");
         }
 
-        for (int i = 0; i < lines.size(); ++i) {
-            double[] testOutput = new double[10];
-            testOutput[Integer.parseInt(lines.get(i).substring(0, 1))] = 1;
+        Collections.shuffle(tests);
+    }
 
-            Stream<Double> pixelValuesStream = Arrays.stream(lines.get(i).split(",")).map(number -> Double.parseDouble(number) / 255);
-            ArrayList<Double> pixelValues = new ArrayList<>(pixelValuesStream.toList());
+    // Test of line "label,pixel,...,pixel": output has 1 in position of label (digit) and 0 in other 9 positions,
+    // input has pixels divided by 255
+    static Test parseDigitsImage(String line) {
+        int fieldsCount = 1;
 
-            double[] testInput = new double[pixelValues.size() - 1];
-            for (int j = 0; j < pixelValues.size() - 1; ++j) {
-                testInput[j] = pixelValues.get(j + 1);
+        for (int i = 0; i < line.length(); ++i) {
+            if (line.charAt(i) == ',') {
+                ++fieldsCount;
             }
+        }
+
+        double[] testInput = new double[fieldsCount - 1];
+        double[] testOutput = new double[10];
+
+        int fieldStart = 0;
+
+        for (int field = 0; field < fieldsCount; ++field) {
+            int fieldEnd = line.indexOf(',', fieldStart);
+            fieldEnd = fieldEnd < 0 ? line.length() : fieldEnd;
+
+            double value = parseNumber(line, fieldStart, fieldEnd);
 
-            tests.add(new Test(testInput, testOutput));
+            if (field == 0) {
+                testOutput[(int)value] = 1;
+            } else {
+                testInput[field - 1] = value / 255;
+            }
+
+            fieldStart = fieldEnd + 1;
         }
 
-        Collections.shuffle(tests);
+        return new Test(testInput, testOutput);
+    }
+
+    // Integers are parsed without substring making, other numbers by Double.parseDouble
+    private static double parseNumber(String line, int start, int end) {
+        int value = 0;
+
+        for (int i = start; i < end; ++i) {
+            char c = line.charAt(i);
+
+            if (c < '0' || c > '9' || i - start > 8) {
+                return Double.parseDouble(line.substring(start, end).trim());
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
     }
 
     // Generates all bitmasks with length inputSize
@@ -141,12 +217,24 @@ public class TestSet {
             throw new RuntimeException("There is no next test.");
         }
 
-        return tests.get(++currentTestIndex);
+        return getTest(++currentTestIndex);
+    }
+
+    // Moves next tests to buffer and returns their quantity, 0 if there are no tests left.
+    // Unlike nextTest it may be called by many threads, every test is given to one thread
+    public synchronized int nextTests(Test[] buffer) {
+        int count = Math.min(buffer.length, size - currentTestIndex - 1);
+
+        for (int i = 0; i < count; ++i) {
+            buffer[i] = getTest(++currentTestIndex);
+        }
+
+        return count;
     }
 
     public void clearTestsQueue() {
         currentTestIndex = -1;
-        Collections.shuffle(tests);
+        shuffleTests();
     }
 
     public boolean hasNextTest() {
@@ -157,5 +245,52 @@ public class TestSet {
         return currentTestIndex;
     }
 
+    // Test in position index of current tests order. Cursor of nextTest doesn't move and order doesn't change,
+    // so many threads may take tests at once, while nobody takes next tests or shuffles them
+    // Throws exception if test set isn't random access or index is out of [0, size)
+    public Test getTestAt(int index) {
+        if (!isRandomAccess()) {
+            throw new UnsupportedOperationException("Test set can be only read in order.");
+        }
+
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Bad argument for test taking. Index must be in [0, size).");
+        }
+
+        return getTest(index);
+    }
+
+    // Whether tests can be taken by index (see getTestAt), not only one after another
+    public boolean isRandomAccess() {
+        return true;
+    }
+
+    // Inputs of at most testsCount tests as rows of matrix. Tests of random access test set are taken evenly
+    // from the whole set, cursor and order stay the same. Other test set is read from the beginning of new shuffled pass
+    public Matrix sampleInputs(int testsCount) {
+        Matrix inputs = new Matrix(Math.max(0, Math.min(testsCount, size)), inputSize);
+
+        if (!isRandomAccess()) {
+            clearTestsQueue();
+        }
+
+        for (int t = 0; t < inputs.N; ++t) {
+            Test test = isRandomAccess() ? getTestAt((int)((long)t * size / inputs.N)) : nextTest();
+            System.arraycopy(test.input(), 0, inputs.values, t * inputs.M, inputs.M);
+        }
+
+        return inputs;
+    }
+
+    // Test in position index of current tests order
+    protected Test getTest(int index) {
+        return tests.get(index);
+    }
+
+    // Changes tests order randomly
+    protected void shuffleTests() {
+        Collections.shuffle(tests);
+    }
+
     public record Test(double[] input, double[] correctOutput) {}
 }
@@ -0,0 +1,202 @@
+package com.company.train;
+
+import com.company.model.Matrix;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Reads tests of digits images CSV file (see TestSet) or binary test set file (see MappedTestSet) in file order by chunks,
+so file of any size is read with bounded memory. Format is detected by first bytes of file.
+
+Reading only takes raw lines or bytes of chunk, and inputs are parsed by Chunk.parseInputs,
+so many threads may parse chunks, while one thread reads next ones.
+ */
+public abstract class TestsFileReader implements Closeable {
+    // Part of file with size() tests
+    public interface Chunk {
+        int size();
+
+        // Writes inputs of tests to rows of matrix from 0 to size()
+        // Throws exception if test input size doesn't match matrix h-dimension
+        void parseInputs(Matrix inputs);
+    }
+
+    // Opens file of any supported format
+    // Throws exception if file can't be read
+    public static TestsFileReader open(String path) throws IOException {
+        if (isBinaryTestSet(path)) {
+            return new BinaryReader(MappedTestSet.readHeader(path));
+        }
+
+        return new CsvReader(path);
+    }
+
+    // Size of test input, 0 if file has no tests
+    public abstract int getInputSize();
+
+    // Next at most maxTestsCount tests, null if file ended
+    // Throws exception if file can't be read
+    public abstract Chunk readChunk(int maxTestsCount) throws IOException;
+
+    private static boolean isBinaryTestSet(String path) throws IOException {
+        try (InputStream input = Files.newInputStream(Path.of(path))) {
+            byte[] magic = input.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MappedTestSet.MAGIC;
+        }
+    }
+
+    private static void checkInputSize(int inputSize, Matrix inputs) {
+        if (inputSize != inputs.M) {
+            throw new IllegalArgumentException("Bad argument for inputs parsing. Test input size doesn't match matrix h-dimension.");
+        }
+    }
+
+    // Lines are read as strings, blank lines are skipped like in TestSet
+    private static class CsvReader extends TestsFileReader {
+        private final BufferedReader reader;
+        private String firstLine;
+        private final int inputSize;
+
+        CsvReader(String path) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(Files.newInputStream(Path.of(path)), StandardCharsets.US_ASCII), 1 << 16);
+            firstLine = nextLine();
+            inputSize = firstLine == null ? 0 : TestSet.parseDigitsImage(firstLine).input().length;
+        }
+
+        @Override
+        public int getInputSize() {
+            return inputSize;
+        }
+
+        @Override
+        public Chunk readChunk(int maxTestsCount) throws IOException {
+            List<String> lines = new ArrayList<>(maxTestsCount);
+
+            if (firstLine != null) {
+                lines.add(firstLine);
+                firstLine = null;
+            }
+
+            for (String line; lines.size() < maxTestsCount && (line = nextLine()) != null; ) {
+                lines.add(line);
+            }
+
+            if (lines.isEmpty()) {
+                return null;
+            }
+
+            return new Chunk() {
+                @Override
+                public int size() {
+                    return lines.size();
+                }
+
+                @Override
+                public void parseInputs(Matrix inputs) {
+                    for (int i = 0; i < lines.size(); ++i) {
+                        double[] input = TestSet.parseDigitsImage(lines.get(i)).input();
+
+                        checkInputSize(input.length, inputs);
+                        System.arraycopy(input, 0, inputs.values, inputs.offset + i * inputs.stride, inputs.M);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private String nextLine() throws IOException {
+            String line = reader.readLine();
+
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+
+            return line;
+        }
+    }
+
+    // Bytes of tests are read by one channel read per chunk, floats are converted by parseInputs
+    private static class BinaryReader extends TestsFileReader {
+        private final FileChannel channel;
+        private final int inputSize;
+        private final int testBytes;
+        private int remainingTestsCount;
+
+        BinaryReader(MappedTestSet.Header header) throws IOException {
+            channel = FileChannel.open(Path.of(header.path()), StandardOpenOption.READ);
+            channel.position(MappedTestSet.HEADER_SIZE);
+
+            inputSize = header.inputSize();
+            testBytes = (header.inputSize() + header.outputSize()) * Float.BYTES;
+            remainingTestsCount = header.testsCount();
+        }
+
+        @Override
+        public int getInputSize() {
+            return inputSize;
+        }
+
+        @Override
+        public Chunk readChunk(int maxTestsCount) throws IOException {
+            int count = Math.min(maxTestsCount, remainingTestsCount);
+
+            if (count == 0) {
+                return null;
+            }
+
+            ByteBuffer bytes = ByteBuffer.allocate(count * testBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes) < 0) {
+                    throw new IOException("Test set file ends before its last test.");
+                }
+            }
+
+            remainingTestsCount -= count;
+            bytes.flip();
+
+            return new Chunk() {
+                @Override
+                public int size() {
+                    return count;
+                }
+
+                @Override
+                public void parseInputs(Matrix inputs) {
+                    checkInputSize(inputSize, inputs);
+
+                    for (int i = 0; i < count; ++i) {
+                        int testStart = i * testBytes;
+                        int rowStart = inputs.offset + i * inputs.stride;
+
+                        for (int j = 0; j < inputSize; ++j) {
+                            inputs.values[rowStart + j] = bytes.getFloat(testStart + j * Float.BYTES);
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.train.distributed;
+
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Softmax;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.trainer.ParameterServerTrainer;
+import com.company.train.trainer.TrainerOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Trains digits network by parameter server in this process and gradient workers in separate processes on this machine
+public class DistributedTraining {
+    // Arguments: digits images file, workers quantity, server port (optional, any free port by default)
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: DistributedTraining <dataset> <workers count> [port]");
+            return;
+        }
+
+        String datasetPath = args[0];
+        int workersCount = Integer.parseInt(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        NeuralNetwork neuralNetwork = new NeuralNetwork(784, 10, new int[] {32, 16},
+                new ActivationFunction[] {ActivationFunctionsEnum.RELU, ActivationFunctionsEnum.RELU, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        TrainerOptions trainerOptions = new TrainerOptions(0.1, 0.5, 20, 128, 0.1, 5);
+
+        TestSet testSet = new TestSet(datasetPath);
+        List<Process> workers = new ArrayList<>();
+
+        try (ParameterServerTrainer trainer = new ParameterServerTrainer(neuralNetwork, testSet, trainerOptions, port, workersCount)) {
+            for (int w = 0; w < workersCount; ++w) {
+                workers.add(startWorker(trainer.getPort(), datasetPath, w, workersCount));
+            }
+
+            trainer.trainNetwork();
+        } finally {
+            for (Process worker : workers) {
+                if (!worker.waitFor(10, TimeUnit.SECONDS)) {
+                    worker.destroy();
+                }
+            }
+        }
+    }
+
+    // Worker JVM has classpath of this JVM and its options, which workers need (see workerJvmOptions)
+    private static Process startWorker(int port, String datasetPath, int shardIndex, int shardsCount) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(workerJvmOptions(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(GradientWorker.class.getName());
+        command.add("localhost");
+        command.add(String.valueOf(port));
+        command.add(datasetPath);
+        command.add(String.valueOf(shardIndex));
+        command.add(String.valueOf(shardsCount));
+
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    // Modules, memory, assertions and system properties of this JVM. Other options, e.g. debugger agent with its port, aren't passed
+    static List<String> workerJvmOptions(List<String> inputArguments) {
+        List<String> options = new ArrayList<>();
+
+        for (int i = 0; i < inputArguments.size(); ++i) {
+            String argument = inputArguments.get(i);
+
+            if (argument.equals("--add-modules") && i + 1 < inputArguments.size()) {
+                options.add(argument);
+                options.add(inputArguments.get(++i));
+            } else if (argument.startsWith("--add-modules=") || argument.startsWith("-Xmx") || argument.startsWith("-Xms") || argument.startsWith("-Xss")
+                    || argument.startsWith("-D") || argument.startsWith("-ea") || argument.startsWith("-enableassertions")
+                    || argument.startsWith("-XX:MaxVectorSize=")) {
+                options.add(argument);
+            }
+        }
+
+        return options;
+    }
+}
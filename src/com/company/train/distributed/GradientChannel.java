@@ -0,0 +1,172 @@
+package com.company.train.distributed;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.SocketChannel;
+
+/*
+Binary connection between parameter server and gradient worker. All numbers are little-endian.
+
+  Worker -> server, once:  HELLO     int MAGIC, int shard tests quantity
+  Server -> worker, once:  STRUCTURE int input size, int output size, int hidden layers quantity, int[] hidden layers sizes,
+                                     string[] activation functions names (one for every layer), string loss function name,
+                                     int batch size of worker
+  Server -> worker:        byte EPOCH                                   - worker starts its shard from beginning
+                           byte STEP, double[] weights, double[] biases - worker calculates gradients of its next batch
+                           byte STOP                                    - worker closes connection
+  Worker -> server:        GRADIENT  int batch tests quantity, double sum of output errors, byte 1 if shard has next tests,
+                                     double[] sum of weights gradients, double[] sum of biases gradients
+
+Strings are int length and UTF-8 bytes. Arrays of doubles have no length, both sides know it from network structure.
+Parameters and gradients are flat vectors ordered like in GradientAccumulator.
+ */
+public class GradientChannel implements Closeable {
+    public static final int MAGIC = 0x42505447;
+
+    public static final byte EPOCH = 1;
+    public static final byte STEP = 2;
+    public static final byte STOP = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final SocketChannel channel;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN).limit(0);
+
+    public GradientChannel(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    public static GradientChannel connect(String host, int port) throws IOException {
+        return new GradientChannel(SocketChannel.open(new InetSocketAddress(host, port)));
+    }
+
+    public void writeByte(byte value) throws IOException {
+        reserve(Byte.BYTES);
+        output.put(value);
+    }
+
+    public void writeInt(int value) throws IOException {
+        reserve(Integer.BYTES);
+        output.putInt(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        reserve(Double.BYTES);
+        output.putDouble(value);
+    }
+
+    public void writeDoubles(double[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            reserve(Double.BYTES);
+
+            int count = Math.min(length, output.remaining() / Double.BYTES);
+            output.asDoubleBuffer().put(values, offset, count);
+            output.position(output.position() + count * Double.BYTES);
+
+            offset += count;
+            length -= count;
+        }
+    }
+
+    public void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+
+        for (byte b : bytes) {
+            writeByte(b);
+        }
+    }
+
+    // Sends everything written before
+    public void flush() throws IOException {
+        output.flip();
+
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+
+        output.clear();
+    }
+
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return input.get();
+    }
+
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return input.getInt();
+    }
+
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return input.getDouble();
+    }
+
+    public void readDoubles(double[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            require(Double.BYTES);
+
+            int count = Math.min(length, input.remaining() / Double.BYTES);
+            input.asDoubleBuffer().get(values, offset, count);
+            input.position(input.position() + count * Double.BYTES);
+
+            offset += count;
+            length -= count;
+        }
+    }
+
+    // Throws exception if string is longer than buffer
+    public String readString() throws IOException {
+        int length = readInt();
+
+        if (length < 0 || length > BUFFER_SIZE) {
+            throw new IOException("Bad string length " + length + ".");
+        }
+
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = readByte();
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Sends buffer if there is no place for bytesCount bytes
+    private void reserve(int bytesCount) throws IOException {
+        if (output.remaining() < bytesCount) {
+            flush();
+        }
+    }
+
+    // Receives bytes until buffer has at least bytesCount of them
+    // Throws exception if connection is closed earlier
+    private void require(int bytesCount) throws IOException {
+        if (input.remaining() >= bytesCount) {
+            return;
+        }
+
+        input.compact();
+
+        while (input.position() < bytesCount) {
+            if (channel.read(input) < 0) {
+                throw new EOFException("Connection is closed.");
+            }
+        }
+
+        input.flip();
+    }
+}
@@ -0,0 +1,111 @@
+package com.company.train.distributed;
+
+import com.company.model.Matrix;
+import com.company.model.activation.ActivationFunction;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.gradient.GradientAccumulator;
+
+import java.io.IOException;
+
+// Process (or thread), which owns shard of test set and calculates gradients of its batches for parameter server.
+// Network structure and parameters come from server (see GradientChannel)
+public class GradientWorker implements Runnable {
+    private final String host;
+    private final int port;
+    private final TestSet testSet;
+
+    public GradientWorker(String host, int port, TestSet testSet) {
+        this.host = host;
+        this.port = port;
+        this.testSet = testSet;
+    }
+
+    // Arguments: server host, server port, digits images file, shard index, shards quantity
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.out.println("Usage: GradientWorker <host> <port> <dataset> <shard index> <shards count>");
+            return;
+        }
+
+        TestSet testSet = new TestSet(args[2], Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        new GradientWorker(args[0], Integer.parseInt(args[1]), testSet).work();
+    }
+
+    @Override
+    public void run() {
+        try {
+            work();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    // Calculates gradients until server sends STOP
+    public void work() throws IOException {
+        try (GradientChannel channel = GradientChannel.connect(host, port)) {
+            channel.writeInt(GradientChannel.MAGIC);
+            channel.writeInt(testSet.size);
+            channel.flush();
+
+            NeuralNetwork network = readStructure(channel);
+            TestSet.Test[] batch = new TestSet.Test[channel.readInt()];
+            GradientAccumulator gradient = new GradientAccumulator(network);
+
+            for (byte command = channel.readByte(); command != GradientChannel.STOP; command = channel.readByte()) {
+                if (command == GradientChannel.EPOCH) {
+                    testSet.clearTestsQueue();
+                    continue;
+                }
+
+                if (command != GradientChannel.STEP) {
+                    throw new IOException("Bad command " + command + ".");
+                }
+
+                for (Matrix weights : network.weights) {
+                    channel.readDoubles(weights.values, weights.offset, weights.N * weights.M);
+                }
+
+                for (Matrix biases : network.biases) {
+                    channel.readDoubles(biases.values, biases.offset, biases.N);
+                }
+
+                gradient.clear();
+
+                int testsCount = testSet.nextTests(batch);
+
+                for (int i = 0; i < testsCount; ++i) {
+                    gradient.add(network, batch[i]);
+                }
+
+                channel.writeInt(testsCount);
+                channel.writeDouble(gradient.getOutputError());
+                channel.writeByte(testSet.hasNextTest() ? (byte)1 : (byte)0);
+                channel.writeDoubles(gradient.getWeightsGradient(), 0, gradient.getWeightsGradient().length);
+                channel.writeDoubles(gradient.getBiasesGradient(), 0, gradient.getBiasesGradient().length);
+                channel.flush();
+            }
+        }
+    }
+
+    private static NeuralNetwork readStructure(GradientChannel channel) throws IOException {
+        int inputSize = channel.readInt();
+        int outputSize = channel.readInt();
+        int[] hiddenLayersSizes = new int[channel.readInt()];
+
+        for (int i = 0; i < hiddenLayersSizes.length; ++i) {
+            hiddenLayersSizes[i] = channel.readInt();
+        }
+
+        ActivationFunction[] activations = new ActivationFunction[hiddenLayersSizes.length + 1];
+
+        for (int i = 0; i < activations.length; ++i) {
+            activations[i] = ActivationFunction.valueOf(channel.readString());
+        }
+
+        LossFunction lossFunction = LossFunction.valueOf(channel.readString());
+
+        return new NeuralNetwork(inputSize, outputSize, hiddenLayersSizes, activations, lossFunction);
+    }
+}
@@ -0,0 +1,178 @@
+package com.company.train.gradient;
+
+import com.company.model.FloatMatrix;
+import com.company.model.network.FloatNeuralNetwork;
+import com.company.model.network.FloatWorkspace;
+
+// Sums of weights and biases gradients of output error by tests, calculated by single precision network.
+// Formulas are the same as in GradientAccumulator. Float sums lose precision when many tests are added,
+// so accumulator should take a part of a batch and pass its sums to double accumulator by addTo
+public class FloatGradientAccumulator {
+    private final FloatWorkspace workspace;
+
+    private final float[] weightsGradient;
+    private final float[] biasesGradient;
+
+    // Views of layers parts of gradients vectors
+    private final FloatMatrix[] layersWeightsGradients;
+    private final FloatMatrix[] layersBiasesGradients;
+
+    private double outputError;
+    private int testsCount;
+
+    // Rows of packed tests are copied here, arrays are made by first addRows
+    private float[] rowInput;
+    private float[] rowCorrectOutput;
+
+    // Loss function works with doubles, so output layer values go through these arrays
+    private final double[] output;
+    private final double[] correctOutput;
+    private final double[] outputLayerError;
+
+    public FloatGradientAccumulator(FloatNeuralNetwork network) {
+        this(network, new FloatWorkspace(network));
+    }
+
+    public FloatGradientAccumulator(FloatNeuralNetwork network, FloatWorkspace workspace) {
+        this.workspace = workspace;
+
+        int weightsCount = 0;
+        int biasesCount = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            weightsCount += network.weights[i].N * network.weights[i].M;
+            biasesCount += network.biases[i].N;
+        }
+
+        weightsGradient = new float[weightsCount];
+        biasesGradient = new float[biasesCount];
+        layersWeightsGradients = new FloatMatrix[network.weights.length];
+        layersBiasesGradients = new FloatMatrix[network.biases.length];
+
+        int currentWeightIndex = 0;
+        int currentBiasIndex = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            FloatMatrix weights = network.weights[i];
+            layersWeightsGradients[i] = FloatMatrix.wrap(weights.N, weights.M, weightsGradient, currentWeightIndex, weights.M);
+            layersBiasesGradients[i] = FloatMatrix.wrap(weights.N, 1, biasesGradient, currentBiasIndex, 1);
+
+            currentWeightIndex += weights.N * weights.M;
+            currentBiasIndex += weights.N;
+        }
+
+        output = new double[network.outputSize];
+        correctOutput = new double[network.outputSize];
+        outputLayerError = new double[network.outputSize];
+    }
+
+    // Adds gradients of output errors of tests from firstRow (inclusive) to lastRow (exclusive),
+    // every row of inputs is test input and the same row of correctOutputs is its correct output
+    // Throws exception if network has another structure than network accumulator was made by, or rows sizes don't match it
+    public void addRows(FloatNeuralNetwork network, FloatMatrix inputs, FloatMatrix correctOutputs, int firstRow, int lastRow) {
+        if (inputs.M != network.inputSize || correctOutputs.M != network.outputSize) {
+            throw new IllegalArgumentException("Bad argument for gradient calculation. Rows sizes don't match network input and output sizes.");
+        }
+
+        if (!workspace.fits(network)) {
+            throw new IllegalArgumentException("Bad argument for gradient calculation. Network doesn't fit accumulator.");
+        }
+
+        if (rowInput == null || rowInput.length != inputs.M || rowCorrectOutput.length != correctOutputs.M) {
+            rowInput = new float[inputs.M];
+            rowCorrectOutput = new float[correctOutputs.M];
+        }
+
+        for (int row = firstRow; row < lastRow; ++row) {
+            System.arraycopy(inputs.values, inputs.offset + row * inputs.stride, rowInput, 0, inputs.M);
+            System.arraycopy(correctOutputs.values, correctOutputs.offset + row * correctOutputs.stride, rowCorrectOutput, 0, correctOutputs.M);
+
+            add(network, rowInput, rowCorrectOutput);
+        }
+    }
+
+    private void add(FloatNeuralNetwork network, float[] input, float[] correctOutput) {
+        // Forward pass, which saves every layer input and output to workspace
+        network.calcOutputInto(input, workspace.getOutput(), workspace);
+        outputError += calcLayersErrors(network, correctOutput);
+        ++testsCount;
+
+        FloatMatrix previousLayerOutput = workspace.getInput();
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            FloatMatrix layerError = workspace.getLayerError(i);
+
+            // dE / dW = D * A^T, dE / dB = D
+            layersWeightsGradients[i].addOuterProduct(layerError, previousLayerOutput);
+            layersBiasesGradients[i].add(layerError);
+
+            previousLayerOutput = workspace.getLayerOutput(i);
+        }
+    }
+
+    // Adds sums to double accumulator
+    // Throws exception if accumulators have different sizes
+    public void addTo(GradientAccumulator accumulator) {
+        accumulator.add(weightsGradient, biasesGradient, outputError, testsCount);
+    }
+
+    // Sets sums to zero
+    public void clear() {
+        FloatMatrix.wrap(1, weightsGradient.length, weightsGradient).fill(0);
+        FloatMatrix.wrap(1, biasesGradient.length, biasesGradient).fill(0);
+        outputError = 0;
+        testsCount = 0;
+    }
+
+    // View of sum of layer weights gradients, it has size of layer weights matrix
+    public FloatMatrix getLayerWeightsGradient(int layerIndex) {
+        return layersWeightsGradients[layerIndex];
+    }
+
+    // View of sum of layer biases gradients, it has size of layer biases matrix
+    public FloatMatrix getLayerBiasesGradient(int layerIndex) {
+        return layersBiasesGradients[layerIndex];
+    }
+
+    // Sum of output errors of added tests
+    public double getOutputError() {
+        return outputError;
+    }
+
+    public int getTestsCount() {
+        return testsCount;
+    }
+
+    // Backward pass, which calculates partial derivatives of error function by every layer input. Returns output error
+    private double calcLayersErrors(FloatNeuralNetwork network, float[] correctOutputValues) {
+        int outputLayerIndex = network.weights.length - 1;
+        FloatMatrix outputLayerOutput = workspace.getLayerOutput(outputLayerIndex);
+        FloatMatrix outputLayerErrorMatrix = workspace.getLayerError(outputLayerIndex);
+
+        for (int v = 0; v < output.length; ++v) {
+            output[v] = outputLayerOutput.values[v];
+            correctOutput[v] = correctOutputValues[v];
+        }
+
+        // Output layer error depends on loss function and output activation function together
+        double error = network.lossFunction.calcOutputLayerError(output, correctOutput, network.activations[outputLayerIndex], outputLayerError);
+
+        for (int v = 0; v < outputLayerError.length; ++v) {
+            outputLayerErrorMatrix.values[v] = (float)outputLayerError[v];
+        }
+
+        for (int i = outputLayerIndex - 1; i >= 0; --i) {
+            FloatMatrix layerOutput = workspace.getLayerOutput(i);
+            FloatMatrix layerError = workspace.getLayerError(i);
+
+            // W^T * D is calculated without transposed matrix making
+            network.weights[i + 1].multiplyTransposedLeftVectorInto(workspace.getLayerError(i + 1), layerError);
+
+            for (int v = 0; v < layerError.N; ++v) {
+                layerError.values[v] *= (float)network.activations[i].derivativeByOutput(layerOutput.values[v]);
+            }
+        }
+
+        return error;
+    }
+}
@@ -0,0 +1,224 @@
+package com.company.train.gradient;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.Workspace;
+import com.company.train.TestSet;
+
+// Sums of weights and biases gradients of output error by many tests, kept in preallocated flat vectors.
+// Adding a test allocates nothing, so one accumulator per thread can be reused by every batch
+public class GradientAccumulator {
+    private final Workspace workspace;
+
+    private final double[] weightsGradient;
+    private final double[] biasesGradient;
+
+    // Views of layers parts of gradients vectors
+    private final Matrix[] layersWeightsGradients;
+    private final Matrix[] layersBiasesGradients;
+
+    private double outputError;
+    private int testsCount;
+
+    // Rows of packed tests are copied here, arrays are made by first addRows
+    private double[] rowInput;
+    private double[] rowCorrectOutput;
+
+    /*
+    Gradient calculation (reverse mode, backpropagation):
+
+      Z(i) = W(i) * A(i - 1) + B(i)                       - layer input (nodes charges)
+      A(i) = F(i)(Z(i)), A(-1) = X                        - layer output (nodes activations)
+      D(n) = dE / dZ(n)                                   - output layer error, given by loss function:
+             2 * (A(n) - Y) * F(n)'(Z(n))                   for squared error
+             A(n) - Y                                       for softmax output with cross-entropy
+      D(i) = (W(i + 1)^T * D(i + 1)) * F(i)'(Z(i))        - hidden layer error
+      F(i)'(Z(i)) is expressed by A(i), so no activation function is calculated again
+
+      dE / dW(i)[u][v] = D(i)[u] * A(i - 1)[v]
+      dE / dB(i)[u] = D(i)[u]
+
+      Where n = hiddenLayersQuantity,
+      X - network input, Y - correct output,
+      F(i) - activation function of layer i, E - loss function,
+      products of vectors in D formulas are element-wise.
+
+    Layers inputs and outputs of the forward pass are kept in workspace, so both gradients and output error come from one trace.
+    Gradients are flat vectors with parameters ordered like in Trainer.tweakNetworkParametersByGradients:
+    layer by layer, every matrix element (k, r) has index [k * M + r], where M - matrix h-dimension.
+     */
+
+    public GradientAccumulator(NeuralNetwork network) {
+        this(network, new Workspace(network));
+    }
+
+    public GradientAccumulator(NeuralNetwork network, Workspace workspace) {
+        this.workspace = workspace;
+
+        int weightsCount = 0;
+        int biasesCount = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            weightsCount += network.weights[i].N * network.weights[i].M;
+            biasesCount += network.biases[i].N;
+        }
+
+        weightsGradient = new double[weightsCount];
+        biasesGradient = new double[biasesCount];
+        layersWeightsGradients = new Matrix[network.weights.length];
+        layersBiasesGradients = new Matrix[network.biases.length];
+
+        int currentWeightIndex = 0;
+        int currentBiasIndex = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            Matrix weights = network.weights[i];
+            layersWeightsGradients[i] = Matrix.wrap(weights.N, weights.M, weightsGradient, currentWeightIndex, weights.M);
+            layersBiasesGradients[i] = Matrix.wrap(weights.N, 1, biasesGradient, currentBiasIndex, 1);
+
+            currentWeightIndex += weights.N * weights.M;
+            currentBiasIndex += weights.N;
+        }
+    }
+
+    // Adds gradients of test output error
+    // Throws exception if network has another structure than network accumulator was made by
+    public void add(NeuralNetwork network, TestSet.Test test) {
+        add(network, test.input(), test.correctOutput());
+    }
+
+    // Adds gradients of output errors of tests from firstRow (inclusive) to lastRow (exclusive),
+    // every row of inputs is test input and the same row of correctOutputs is its correct output
+    // Throws exception if network has another structure than network accumulator was made by, or rows sizes don't match it
+    public void addRows(NeuralNetwork network, Matrix inputs, Matrix correctOutputs, int firstRow, int lastRow) {
+        if (inputs.M != network.inputSize || correctOutputs.M != network.outputSize) {
+            throw new IllegalArgumentException("Bad argument for gradient calculation. Rows sizes don't match network input and output sizes.");
+        }
+
+        if (rowInput == null || rowInput.length != inputs.M || rowCorrectOutput.length != correctOutputs.M) {
+            rowInput = new double[inputs.M];
+            rowCorrectOutput = new double[correctOutputs.M];
+        }
+
+        for (int row = firstRow; row < lastRow; ++row) {
+            System.arraycopy(inputs.values, inputs.offset + row * inputs.stride, rowInput, 0, inputs.M);
+            System.arraycopy(correctOutputs.values, correctOutputs.offset + row * correctOutputs.stride, rowCorrectOutput, 0, correctOutputs.M);
+
+            add(network, rowInput, rowCorrectOutput);
+        }
+    }
+
+    private void add(NeuralNetwork network, double[] input, double[] correctOutput) {
+        if (!workspace.fits(network)) {
+            throw new IllegalArgumentException("Bad argument for gradient calculation. Network doesn't fit accumulator.");
+        }
+
+        // Forward pass, which saves every layer input and output to workspace
+        network.calcOutputInto(input, workspace.getOutput(), workspace);
+        outputError += calcLayersErrors(network, correctOutput);
+        ++testsCount;
+
+        Matrix previousLayerOutput = workspace.getInput();
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            Matrix layerError = workspace.getLayerError(i);
+
+            // dE / dW = D * A^T, dE / dB = D
+            layersWeightsGradients[i].addProductTransposedRight(layerError, previousLayerOutput);
+            layersBiasesGradients[i].add(layerError);
+
+            previousLayerOutput = workspace.getLayerOutput(i);
+        }
+    }
+
+    // Adds sums of another accumulator
+    // Throws exception if accumulators have different sizes
+    public void add(GradientAccumulator accumulator) {
+        if (weightsGradient.length != accumulator.weightsGradient.length || biasesGradient.length != accumulator.biasesGradient.length) {
+            throw new IllegalArgumentException("Bad argument for gradients summation. Gradients sizes don't equal.");
+        }
+
+        Matrix.wrap(1, weightsGradient.length, weightsGradient).add(Matrix.wrap(1, weightsGradient.length, accumulator.weightsGradient));
+        Matrix.wrap(1, biasesGradient.length, biasesGradient).add(Matrix.wrap(1, biasesGradient.length, accumulator.biasesGradient));
+        outputError += accumulator.outputError;
+        testsCount += accumulator.testsCount;
+    }
+
+    // Adds sums of single precision accumulator (see FloatGradientAccumulator.addTo)
+    void add(float[] weightsGradientSum, float[] biasesGradientSum, double outputErrorSum, int sumTestsCount) {
+        if (weightsGradient.length != weightsGradientSum.length || biasesGradient.length != biasesGradientSum.length) {
+            throw new IllegalArgumentException("Bad argument for gradients summation. Gradients sizes don't equal.");
+        }
+
+        for (int k = 0; k < weightsGradient.length; ++k) {
+            weightsGradient[k] += weightsGradientSum[k];
+        }
+
+        for (int k = 0; k < biasesGradient.length; ++k) {
+            biasesGradient[k] += biasesGradientSum[k];
+        }
+
+        outputError += outputErrorSum;
+        testsCount += sumTestsCount;
+    }
+
+    // Sets sums to zero
+    public void clear() {
+        Matrix.wrap(1, weightsGradient.length, weightsGradient).fill(0);
+        Matrix.wrap(1, biasesGradient.length, biasesGradient).fill(0);
+        outputError = 0;
+        testsCount = 0;
+    }
+
+    // Sum of weights gradients as flat vector. Array is accumulator storage, it changes with accumulator
+    public double[] getWeightsGradient() {
+        return weightsGradient;
+    }
+
+    // Sum of biases gradients as flat vector. Array is accumulator storage, it changes with accumulator
+    public double[] getBiasesGradient() {
+        return biasesGradient;
+    }
+
+    // View of sum of layer weights gradients, it has size of layer weights matrix
+    public Matrix getLayerWeightsGradient(int layerIndex) {
+        return layersWeightsGradients[layerIndex];
+    }
+
+    // View of sum of layer biases gradients, it has size of layer biases matrix
+    public Matrix getLayerBiasesGradient(int layerIndex) {
+        return layersBiasesGradients[layerIndex];
+    }
+
+    // Sum of output errors of added tests
+    public double getOutputError() {
+        return outputError;
+    }
+
+    public int getTestsCount() {
+        return testsCount;
+    }
+
+    // Backward pass, which calculates partial derivatives of error function by every layer input. Returns output error
+    private double calcLayersErrors(NeuralNetwork network, double[] correctOutput) {
+        int outputLayerIndex = network.weights.length - 1;
+
+        // Output layer error depends on loss function and output activation function together
+        double outputError = network.lossFunction.calcOutputLayerError(workspace.getLayerOutput(outputLayerIndex).values, correctOutput,
+                network.activations[outputLayerIndex], workspace.getLayerError(outputLayerIndex).values);
+
+        for (int i = outputLayerIndex - 1; i >= 0; --i) {
+            Matrix layerOutput = workspace.getLayerOutput(i);
+            Matrix layerError = workspace.getLayerError(i);
+
+            // W^T * D is calculated without transposed matrix making
+            network.weights[i + 1].multiplyTransposedLeftInto(workspace.getLayerError(i + 1), layerError);
+
+            for (int v = 0; v < layerError.N; ++v) {
+                layerError.values[v] *= network.activations[i].derivativeByOutput(layerOutput.values[v]);
+            }
+        }
+
+        return outputError;
+    }
+}
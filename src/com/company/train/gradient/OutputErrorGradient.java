@@ -0,0 +1,40 @@
+package com.company.train.gradient;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.Workspace;
+import com.company.train.TestSet;
+
+// Weights and biases gradients of output error for one test, calculated by one forward and one backward pass (see GradientAccumulator)
+public class OutputErrorGradient {
+    private final Matrix weightsGradient;
+    private final Matrix biasesGradient;
+    private final double outputError;
+
+    public OutputErrorGradient(NeuralNetwork network, TestSet.Test test) {
+        this(network, test, Workspace.forThread(network));
+    }
+
+    // Layers inputs, outputs and errors are kept in workspace buffers, only gradients vectors are allocated
+    public OutputErrorGradient(NeuralNetwork network, TestSet.Test test, Workspace workspace) {
+        GradientAccumulator accumulator = new GradientAccumulator(network, workspace);
+        accumulator.add(network, test);
+
+        weightsGradient = Matrix.wrap(1, accumulator.getWeightsGradient().length, accumulator.getWeightsGradient());
+        biasesGradient = Matrix.wrap(1, accumulator.getBiasesGradient().length, accumulator.getBiasesGradient());
+        outputError = accumulator.getOutputError();
+    }
+
+    public Matrix getWeightsGradient() {
+        return weightsGradient;
+    }
+
+    public Matrix getBiasesGradient() {
+        return biasesGradient;
+    }
+
+    // Error of network output for the test, calculated by network loss function
+    public double getOutputError() {
+        return outputError;
+    }
+}
@@ -0,0 +1,128 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.NeuralNetworkFormat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+Writes network parameters to binary files of NeuralNetworkFormat every epochsInterval epochs:
+
+  training thread:   copy of network -> pending checkpoint (newer copy replaces one, which isn't written yet)
+  background thread: pending checkpoint -> <directory>/checkpoint-<epoch>.bin.tmp -> atomic rename to checkpoint-<epoch>.bin
+                     -> files of oldest checkpoints are deleted, so only retainedCount last checkpoints of writer stay
+
+Training thread only copies parameters, so it never waits for disk. File appears under its name only when it's complete.
+ */
+public class CheckpointWriter implements AutoCloseable {
+    private final Path directory;
+    private final int epochsInterval;
+    private final int retainedCount;
+
+    private final ExecutorService writer;
+    private final AtomicReference<Checkpoint> pendingCheckpoint = new AtomicReference<>();
+    private final Deque<Path> writtenFiles = new ArrayDeque<>();
+
+    private volatile Path lastFile;
+    private volatile long lastWriteNanos;
+
+    private record Checkpoint(NeuralNetwork network, int epoch) {
+    }
+
+    // Throws exception if epochsInterval or retainedCount isn't positive
+    public CheckpointWriter(String directory, int epochsInterval, int retainedCount) throws IOException {
+        if (epochsInterval <= 0 || retainedCount <= 0) {
+            throw new IllegalArgumentException("Bad argument for checkpoint writer. Interval and retained checkpoints count must be positive.");
+        }
+
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.epochsInterval = epochsInterval;
+        this.retainedCount = retainedCount;
+
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Called after every epoch, epochs are counted from 1. Network is copied only if epoch is multiple of interval.
+    // Epochs after close are ignored
+    public void onEpoch(NeuralNetwork network, int epoch) {
+        if (epoch % epochsInterval != 0 || writer.isShutdown()) {
+            return;
+        }
+
+        // Write task is submitted only if there was no pending checkpoint, otherwise waiting task takes the new one
+        if (pendingCheckpoint.getAndSet(new Checkpoint(new NeuralNetwork(network), epoch)) == null) {
+            try {
+                writer.execute(this::writePendingCheckpoint);
+            } catch (RejectedExecutionException e) {
+                // Writer is closed meanwhile, so checkpoint is dropped like after close
+                pendingCheckpoint.set(null);
+            }
+        }
+    }
+
+    // File of last written checkpoint, null if nothing is written yet
+    public Path getLastFile() {
+        return lastFile;
+    }
+
+    // Time of last checkpoint writing in nanoseconds
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    // Waits until pending checkpoint is written
+    @Override
+    public void close() {
+        writer.shutdown();
+
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePendingCheckpoint() {
+        Checkpoint checkpoint = pendingCheckpoint.getAndSet(null);
+        long startTime = System.nanoTime();
+
+        Path file = directory.resolve(String.format("checkpoint-%06d.bin", checkpoint.epoch()));
+        Path temporaryFile = directory.resolve(file.getFileName() + ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                NeuralNetworkFormat.write(checkpoint.network(), channel);
+            }
+
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            writtenFiles.remove(file);
+            writtenFiles.addLast(file);
+
+            while (writtenFiles.size() > retainedCount) {
+                Files.deleteIfExists(writtenFiles.removeFirst());
+            }
+
+            lastFile = file;
+            lastWriteNanos = System.nanoTime() - startTime;
+        } catch (IOException e) {
+            System.out.println("Checkpoint of epoch " + checkpoint.epoch() + " isn't written: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.train.trainer;
+
+/*
+Measurements of one epoch of Trainer.trainNetwork:
+  durationNanos - wall time of epoch from its start to the end of checkpointing
+  phasesNanos   - wall time of every TrainingPhase by its ordinal. Phases, which trainer doesn't separate, are 0
+                  (only OfflineTrainer and ParameterServerTrainer measure gradient, reduction and update of every batch)
+  allocatedBytes - heap bytes allocated by all threads during epoch, -1 if JVM doesn't measure allocations
+ */
+public record EpochMetrics(int epoch, int testsCount, long durationNanos, long[] phasesNanos, long allocatedBytes) {
+    public long getPhaseNanos(TrainingPhase phase) {
+        return phasesNanos[phase.ordinal()];
+    }
+
+    public double getTestsPerSecond() {
+        return durationNanos == 0 ? 0 : testsCount * 1e9 / durationNanos;
+    }
+
+    // Bytes per second, -1 if allocations aren't measured
+    public double getAllocationRate() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+
+        return durationNanos == 0 ? 0 : allocatedBytes * 1e9 / durationNanos;
+    }
+}
@@ -0,0 +1,182 @@
+package com.company.train.trainer;
+
+import com.company.model.Matrix;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Errors and accuracy of network on test set: sum and max of loss function values, and correct answers of every class.
+// Class of output is position of its maximal value, class of one value output is 1 if value is at least 0.5, else 0
+public class Evaluation {
+    // Quantity of tests, which one task calculates by batch output calculation
+    private static final int TASK_TESTS_COUNT = 256;
+
+    private double errorsSum;
+    private double maxError;
+    private int testsCount;
+
+    private final int[] classesTestsCounts;
+    private final int[] classesCorrectAnswersCounts;
+
+    public Evaluation(int classesCount) {
+        classesTestsCounts = new int[classesCount];
+        classesCorrectAnswersCounts = new int[classesCount];
+    }
+
+    // Evaluates network on every test of test set. Random access test set is split to tasks of pool,
+    // and tasks results are summed pairwise, its cursor and order stay the same.
+    // Other test set is read in order by this thread, so its order is shuffled before reading
+    public static Evaluation of(NeuralNetwork network, TestSet testSet, ForkJoinPool pool) {
+        if (testSet.isRandomAccess()) {
+            return pool.invoke(new EvaluationTask(network, testSet, 0, testSet.size));
+        }
+
+        Evaluation evaluation = new Evaluation(classesCount(network.outputSize));
+        testSet.clearTestsQueue();
+
+        while (testSet.hasNextTest()) {
+            TestSet.Test test = testSet.nextTest();
+            evaluation.add(network.lossFunction, network.calcOutputBy(test.input()), test.correctOutput());
+        }
+
+        return evaluation;
+    }
+
+    public double getAverageError() {
+        return testsCount == 0 ? 0 : errorsSum / testsCount;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public int getTestsCount() {
+        return testsCount;
+    }
+
+    // Part of tests with correct class of output
+    public double getAccuracy() {
+        int correctAnswersCount = 0;
+
+        for (int count : classesCorrectAnswersCounts) {
+            correctAnswersCount += count;
+        }
+
+        return testsCount == 0 ? 0 : (double)correctAnswersCount / testsCount;
+    }
+
+    // Part of tests of class with correct class of output, 0 if there are no tests of class
+    public double getClassAccuracy(int classIndex) {
+        return classesTestsCounts[classIndex] == 0 ? 0 : (double)classesCorrectAnswersCounts[classIndex] / classesTestsCounts[classIndex];
+    }
+
+    public int getClassesCount() {
+        return classesTestsCounts.length;
+    }
+
+    // Adds results of another evaluation
+    public Evaluation add(Evaluation evaluation) {
+        errorsSum += evaluation.errorsSum;
+        maxError = Math.max(maxError, evaluation.maxError);
+        testsCount += evaluation.testsCount;
+
+        for (int c = 0; c < classesTestsCounts.length; ++c) {
+            classesTestsCounts[c] += evaluation.classesTestsCounts[c];
+            classesCorrectAnswersCounts[c] += evaluation.classesCorrectAnswersCounts[c];
+        }
+
+        return this;
+    }
+
+    // Adds result of one test
+    void add(LossFunction lossFunction, double[] output, double[] correctOutput) {
+        double error = lossFunction.calcError(output, correctOutput);
+        int correctClass = classOf(correctOutput);
+
+        errorsSum += error;
+        maxError = Math.max(maxError, error);
+        ++testsCount;
+
+        ++classesTestsCounts[correctClass];
+
+        if (classOf(output) == correctClass) {
+            ++classesCorrectAnswersCounts[correctClass];
+        }
+    }
+
+    static int classesCount(int outputSize) {
+        return outputSize == 1 ? 2 : outputSize;
+    }
+
+    static int classOf(double[] output) {
+        if (output.length == 1) {
+            return output[0] >= 0.5 ? 1 : 0;
+        }
+
+        int maxIndex = 0;
+
+        for (int i = 1; i < output.length; ++i) {
+            if (output[i] > output[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+
+        return maxIndex;
+    }
+
+    // Evaluates tests from firstTestIndex (inclusive) to lastTestIndex (exclusive), leaves calculate outputs of their tests by one batch
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    private static class EvaluationTask extends RecursiveTask<Evaluation> {
+        final NeuralNetwork network;
+        final TestSet testSet;
+        final int firstTestIndex;
+        final int lastTestIndex;
+
+        EvaluationTask(NeuralNetwork network, TestSet testSet, int firstTestIndex, int lastTestIndex) {
+            this.network = network;
+            this.testSet = testSet;
+            this.firstTestIndex = firstTestIndex;
+            this.lastTestIndex = lastTestIndex;
+        }
+
+        @Override
+        protected Evaluation compute() {
+            if (lastTestIndex - firstTestIndex > TASK_TESTS_COUNT) {
+                int middleTestIndex = (firstTestIndex + lastTestIndex) >>> 1;
+
+                EvaluationTask secondHalf = new EvaluationTask(network, testSet, middleTestIndex, lastTestIndex);
+                secondHalf.fork();
+
+                Evaluation evaluation = new EvaluationTask(network, testSet, firstTestIndex, middleTestIndex).compute();
+                return evaluation.add(secondHalf.join());
+            }
+
+            Evaluation evaluation = new Evaluation(classesCount(network.outputSize));
+
+            if (lastTestIndex == firstTestIndex) {
+                return evaluation;
+            }
+
+            TestSet.Test[] tests = new TestSet.Test[lastTestIndex - firstTestIndex];
+            Matrix inputs = new Matrix(tests.length, network.inputSize);
+
+            for (int i = 0; i < tests.length; ++i) {
+                tests[i] = testSet.getTestAt(firstTestIndex + i);
+                System.arraycopy(tests[i].input(), 0, inputs.values, i * inputs.M, inputs.M);
+            }
+
+            Matrix outputs = network.calcOutputBy(inputs);
+            double[] output = new double[network.outputSize];
+
+            for (int i = 0; i < tests.length; ++i) {
+                System.arraycopy(outputs.values, outputs.offset + i * outputs.stride, output, 0, output.length);
+                evaluation.add(network.lossFunction, output, tests[i].correctOutput());
+            }
+
+            return evaluation;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.company.train.trainer;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.gradient.GradientAccumulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/*
+Asynchronous stochastic gradient descent (Hogwild):
+
+  options.parallelism() workers take tests from the test set by small chunks. For every test a worker calculates gradients
+  by the current shared parameters and tweaks them at once:
+
+    I := inertiaCoefficient * I - learnSpeed * dE / dP       - increment of parameters, every worker has its own
+    P := P + I                                               - shared network parameters
+
+  In LOCK_FREE mode parameters are read and written without any synchronization, so a worker may see a partly tweaked
+  layer and concurrent increments of one parameter may overwrite each other. Gradients are small and lost updates are rare,
+  so convergence stays close to online training, while workers never wait for each other.
+  In LAYER_LOCKS mode every layer has its own lock, which is held while increments are added to the layer,
+  so no increment is lost. Forward and backward passes still read parameters without locks.
+ */
+public class HogwildTrainer extends Trainer implements AutoCloseable {
+    public enum Synchronization {
+        LOCK_FREE,
+        LAYER_LOCKS
+    }
+
+    // Quantity of tests, which worker takes from test set at once
+    private static final int TESTS_CHUNK_SIZE = 16;
+
+    // Long-lived pool, which runs workers of every epoch. Pool is shut down by close only if trainer created it
+    private final ForkJoinPool pool;
+    private final boolean isPoolOwned;
+    private final Synchronization synchronization;
+
+    private final Object[] layersLocks;
+    private final List<Worker> workers = new ArrayList<>();
+
+    // Trainer owns pool with options.parallelism() threads, parameters are tweaked without locks
+    public HogwildTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options) {
+        this(network, testSet, options, Synchronization.LOCK_FREE);
+    }
+
+    // Trainer owns pool with options.parallelism() threads
+    public HogwildTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, Synchronization synchronization) {
+        this(network, testSet, options, synchronization, new ForkJoinPool(options.parallelism()), true);
+    }
+
+    // Workers are run in given pool, so it may be shared with other trainers. Pool parallelism must be not less than options.parallelism()
+    public HogwildTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, Synchronization synchronization, ForkJoinPool pool) {
+        this(network, testSet, options, synchronization, pool, false);
+    }
+
+    private HogwildTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, Synchronization synchronization, ForkJoinPool pool, boolean isPoolOwned) {
+        super(network, testSet, options);
+        this.pool = pool;
+        this.isPoolOwned = isPoolOwned;
+        this.synchronization = synchronization;
+
+        layersLocks = new Object[this.network.weights.length];
+
+        for (int i = 0; i < layersLocks.length; ++i) {
+            layersLocks[i] = new Object();
+        }
+
+        for (int i = 0; i < options.parallelism(); ++i) {
+            workers.add(new Worker(this.network));
+        }
+    }
+
+    // Network is evaluated by threads, which train it
+    @Override
+    ForkJoinPool getEvaluationPool() {
+        return pool;
+    }
+
+    // Shuts down pool, which trainer created. Given pool isn't shut down
+    @Override
+    public void close() {
+        if (isPoolOwned) {
+            pool.shutdown();
+        }
+    }
+
+    NeuralNetwork trainEpoch(NeuralNetwork network) {
+        testSet.clearTestsQueue();
+
+        List<ForkJoinTask<?>> epochTasks = new ArrayList<>();
+
+        for (Worker worker : workers) {
+            epochTasks.add(ForkJoinTask.adapt(() -> worker.train(network)));
+        }
+
+        // Returns when test set is empty and every worker has tweaked parameters by its last test
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(epochTasks)));
+
+        return network;
+    }
+
+    // Buffers of one worker, they are reused by every epoch
+    private class Worker {
+        final GradientAccumulator gradient;
+        final TestSet.Test[] tests = new TestSet.Test[TESTS_CHUNK_SIZE];
+
+        final Matrix[] weightsIncrements;
+        final Matrix[] biasesIncrements;
+
+        Worker(NeuralNetwork network) {
+            gradient = new GradientAccumulator(network);
+            weightsIncrements = new Matrix[network.weights.length];
+            biasesIncrements = new Matrix[network.biases.length];
+
+            for (int i = 0; i < network.weights.length; ++i) {
+                weightsIncrements[i] = new Matrix(network.weights[i].N, network.weights[i].M);
+                biasesIncrements[i] = new Matrix(network.biases[i].N, network.biases[i].M);
+            }
+        }
+
+        void train(NeuralNetwork network) {
+            // Inertia doesn't pass from one epoch to another, like in other trainers
+            for (int i = 0; i < weightsIncrements.length; ++i) {
+                weightsIncrements[i].fill(0);
+                biasesIncrements[i].fill(0);
+            }
+
+            for (int count = testSet.nextTests(tests); count > 0; count = testSet.nextTests(tests)) {
+                for (int t = 0; t < count; ++t) {
+                    gradient.clear();
+                    gradient.add(network, tests[t]);
+
+                    for (int i = 0; i < network.weights.length; ++i) {
+                        weightsIncrements[i].scale(options.inertiaCoefficient()).addScaled(gradient.getLayerWeightsGradient(i), -options.learnSpeed());
+                        biasesIncrements[i].scale(options.inertiaCoefficient()).addScaled(gradient.getLayerBiasesGradient(i), -options.learnSpeed());
+
+                        if (synchronization == Synchronization.LAYER_LOCKS) {
+                            synchronized (layersLocks[i]) {
+                                network.weights[i].add(weightsIncrements[i]);
+                                network.biases[i].add(biasesIncrements[i]);
+                            }
+                        } else {
+                            network.weights[i].add(weightsIncrements[i]);
+                            network.biases[i].add(biasesIncrements[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,73 @@
 package com.company.train.trainer;
 
 import com.company.model.Matrix;
+import com.company.model.Precision;
+import com.company.model.network.FloatNeuralNetwork;
 import com.company.model.network.NeuralNetwork;
+import com.company.train.BatchPrefetcher;
 import com.company.train.TestSet;
-import com.company.train.gradient.BiasesOutputErrorGradient;
-import com.company.train.gradient.WeightsOutputErrorGradient;
+import com.company.train.gradient.FloatGradientAccumulator;
+import com.company.train.gradient.GradientAccumulator;
 
 import java.util.ArrayList;
-import java.util.concurrent.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-public class OfflineTrainer extends Trainer {
+public class OfflineTrainer extends Trainer implements AutoCloseable {
+    public static final int DEFAULT_PREFETCHED_BATCHES_COUNT = 2;
+
+    // Long-lived pool, which calculates gradients of every batch. Pool is shut down by close only if trainer created it
+    private final ForkJoinPool pool;
+    private final boolean isPoolOwned;
+
+    // Every pool thread sums gradients of its tests to its own accumulator, accumulators are reused by every batch
+    private final ThreadLocal<GradientAccumulator> threadAccumulator = new ThreadLocal<>();
+    private final List<GradientAccumulator> accumulators = new ArrayList<>();
+
+    // Next batches are packed by background thread, while current one is trained
+    private final BatchPrefetcher prefetcher;
+
+    // In FLOAT precision gradients are calculated by single precision copy of network, which is updated before every batch.
+    // Every thread sums gradients of its part of batch in float, and adds them to its double accumulator.
+    // Sums of threads, average gradient and parameters stay double
+    private final Precision precision;
+    private FloatNeuralNetwork floatNetwork;
+    private final ThreadLocal<FloatGradientAccumulator> threadFloatAccumulator = new ThreadLocal<>();
+
+    // Trainer owns pool with options.parallelism() threads
     public OfflineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options) {
+        this(network, testSet, options, new ForkJoinPool(options.parallelism()), DEFAULT_PREFETCHED_BATCHES_COUNT, Precision.DOUBLE, true);
+    }
+
+    // Gradients are calculated in given pool, so it may be shared with other trainers
+    public OfflineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, ForkJoinPool pool) {
+        this(network, testSet, options, pool, DEFAULT_PREFETCHED_BATCHES_COUNT);
+    }
+
+    // prefetchedBatchesCount - quantity of batches, which are packed ahead of current one
+    public OfflineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, ForkJoinPool pool, int prefetchedBatchesCount) {
+        this(network, testSet, options, pool, prefetchedBatchesCount, Precision.DOUBLE);
+    }
+
+    // precision - floating point type of gradients calculation
+    public OfflineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, ForkJoinPool pool, int prefetchedBatchesCount, Precision precision) {
+        this(network, testSet, options, pool, prefetchedBatchesCount, precision, false);
+    }
+
+    private OfflineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, ForkJoinPool pool, int prefetchedBatchesCount, Precision precision,
+                           boolean isPoolOwned) {
         super(network, testSet, options);
+        this.pool = pool;
+        this.isPoolOwned = isPoolOwned;
+        this.precision = precision;
+        this.prefetcher = new BatchPrefetcher(testSet, options.batchSize(), prefetchedBatchesCount, network.inputSize, network.outputSize, precision);
+    }
+
+    // Network is evaluated by threads, which train it
+    @Override
+    ForkJoinPool getEvaluationPool() {
+        return pool;
     }
 
     NeuralNetwork trainEpoch(NeuralNetwork network) {
@@ -27,21 +83,43 @@ public class OfflineTrainer extends Trainer {
             previousBiasesIncrements[i] = new Matrix(network.biases[i].N, network.biases[i].M);
         }
 
-        testSet.clearTestsQueue();
+        prefetcher.startPass();
+        BatchPrefetcher.Batch batch = prefetcher.nextBatch();
 
-        for (int batchIndex = 0; testSet.hasNextTest(); ++batchIndex) {
-            try {
-                trainBatch(network, batchIndex);
-            } catch(Exception e) {
-                System.out.println(e.getMessage());
+        try {
+            while (batch != null) {
+                trainBatch(network, batch);
+                prefetcher.release(batch);
+
+                // Released batch isn't released again, if next one can't be taken
+                batch = null;
+                batch = prefetcher.nextBatch();
+            }
+        } finally {
+            // Batch failed: it is released, and the rest of pass is skipped, so next epoch reads only its own batches
+            if (batch != null) {
+                prefetcher.release(batch);
+                prefetcher.skipPass();
             }
         }
 
         return network;
     }
 
-    private void trainBatch(NeuralNetwork network, int batchIndex) throws ExecutionException, InterruptedException {
-        int currentBatchSize = Math.min(options.batchSize(), testSet.size - testSet.getCurrentTestIndex() - 1);
+    // Stops prefetching thread and pool, which trainer created. Given pool isn't shut down. Trainer can't train after it
+    @Override
+    public void close() {
+        prefetcher.close();
+
+        if (isPoolOwned) {
+            pool.shutdown();
+        }
+    }
+
+    // Tweaks network parameters by average gradient of batch. Increments of previous batch must be defined by trainEpoch
+    void trainBatch(NeuralNetwork network, BatchPrefetcher.Batch batch) {
+        int currentBatchSize = batch.size();
+        long batchStartTime = System.nanoTime();
 
         // Save old parameters
         Matrix[] oldWeights = new Matrix[network.weights.length];
@@ -55,58 +133,42 @@ public class OfflineTrainer extends Trainer {
             oldBiases[p] = new Matrix(network.biases[p]);
         }
 
-        // generate batch
-        TestSet.Test[] batchTests = new TestSet.Test[currentBatchSize];
-        for (int i = 0; testSet.hasNextTest() && testSet.getCurrentTestIndex() < (batchIndex + 1) * options.batchSize() - 1; ++i) {
-            batchTests[i] = testSet.nextTest();
-        }
-
-        // initialize processes
-        final int PROCESSES_COUNT = 16;
-
-        ExecutorService executor = Executors.newFixedThreadPool(PROCESSES_COUNT);
-        ArrayList<Future<Matrix[]>> futures = new ArrayList<>();
-        Callable<Matrix[]>[] processes = new Callable[PROCESSES_COUNT];
-
-        for (int processIndex = 0; processIndex < PROCESSES_COUNT; ++processIndex) {
-            int firstTestIndex = processIndex * currentBatchSize / PROCESSES_COUNT;
-            int lastTestIndex = (processIndex + 1) * currentBatchSize / PROCESSES_COUNT;
-
-            processes[processIndex] = new GradientCalculation(batchTests, firstTestIndex, lastTestIndex, network);
-        }
+        // Saving of old parameters is part of update
+        long gradientStartTime = System.nanoTime();
+        phasesNanos[TrainingPhase.UPDATE.ordinal()] += gradientStartTime - batchStartTime;
 
-        // start processes
-        for (int processIndex = 0; processIndex < PROCESSES_COUNT; ++processIndex) {
-            Future<Matrix[]> future = executor.submit(processes[processIndex]);
-            futures.add(future);
+        if (precision == Precision.FLOAT) {
+            floatNetwork = floatNetwork == null ? new FloatNeuralNetwork(network) : floatNetwork.copyParametersFrom(network);
         }
 
-        // sum gradients
-        int processIndex = 0;
+        // Batch is split into tasks, which are small enough to be stolen by idle threads
+        int tasksThreshold = Math.max(1, currentBatchSize / (4 * pool.getParallelism()));
+        pool.invoke(new GradientCalculation(batch, 0, currentBatchSize, network, tasksThreshold));
 
-        Matrix weightsGradient = futures.getFirst().get()[0];
-        Matrix biasesGradient = futures.getFirst().get()[1];
+        long reductionStartTime = System.nanoTime();
+        phasesNanos[TrainingPhase.GRADIENT.ordinal()] += reductionStartTime - gradientStartTime;
 
-        ++processIndex;
+        // Threads partial sums are summed pairwise in parallel
+        GradientAccumulator[] batchAccumulators;
 
-        for (; processIndex < PROCESSES_COUNT; ++processIndex) {
-            weightsGradient.add(futures.get(processIndex).get()[0]);
-            biasesGradient.add(futures.get(processIndex).get()[1]);
+        synchronized (accumulators) {
+            batchAccumulators = accumulators.toArray(new GradientAccumulator[0]);
         }
 
-        executor.shutdown();
+        pool.invoke(new GradientsReduction(batchAccumulators, 0, batchAccumulators.length));
+        GradientAccumulator gradient = batchAccumulators[0];
 
-        // Calculating average gradients by all tests
-        for (int i = 0; i < weightsGradient.M; ++i) {
-            weightsGradient.values[0][i] /= currentBatchSize;
-        }
+        long updateStartTime = System.nanoTime();
+        phasesNanos[TrainingPhase.REDUCTION.ordinal()] += updateStartTime - reductionStartTime;
 
-        for (int i = 0; i < biasesGradient.M; ++i) {
-            biasesGradient.values[0][i] /= currentBatchSize;
-        }
+        // Calculating average gradients by all tests
+        Matrix weightsGradient = Matrix.wrap(1, gradient.getWeightsGradient().length, gradient.getWeightsGradient()).scale(1.0 / currentBatchSize);
+        Matrix biasesGradient = Matrix.wrap(1, gradient.getBiasesGradient().length, gradient.getBiasesGradient()).scale(1.0 / currentBatchSize);
 
         // Tweak network's parameters
-        network = tweakNetworkParametersByGradients(network, weightsGradient.values[0], biasesGradient.values[0]);
+        network = tweakNetworkParametersByGradients(network, weightsGradient.values, biasesGradient.values);
+
+        gradient.clear();
 
         // Calculate new increments of weights
         for (int p = 0; p < network.weights.length; ++p) {
@@ -117,42 +179,103 @@ public class OfflineTrainer extends Trainer {
         for (int p = 0; p < network.biases.length; ++p) {
             previousBiasesIncrements[p] = network.biases[p].minus(oldBiases[p]);
         }
+
+        long batchEndTime = System.nanoTime();
+        phasesNanos[TrainingPhase.UPDATE.ordinal()] += batchEndTime - updateStartTime;
+        onBatch(currentBatchSize, batchEndTime - batchStartTime);
+    }
+
+    private GradientAccumulator getThreadAccumulator(NeuralNetwork network) {
+        GradientAccumulator accumulator = threadAccumulator.get();
+
+        if (accumulator == null) {
+            accumulator = new GradientAccumulator(network);
+            threadAccumulator.set(accumulator);
+
+            synchronized (accumulators) {
+                accumulators.add(accumulator);
+            }
+        }
+
+        return accumulator;
     }
 
-    static class GradientCalculation implements Callable<Matrix[]> {
-        TestSet.Test[] tests;
+    private FloatGradientAccumulator getThreadFloatAccumulator(FloatNeuralNetwork network) {
+        FloatGradientAccumulator accumulator = threadFloatAccumulator.get();
+
+        if (accumulator == null) {
+            accumulator = new FloatGradientAccumulator(network);
+            threadFloatAccumulator.set(accumulator);
+        }
+
+        return accumulator;
+    }
+
+    // Adds gradients of tests of batch from firstTestIndex (inclusive) to lastTestIndex (exclusive) to accumulators of threads, which do the work
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    class GradientCalculation extends RecursiveAction {
+        final BatchPrefetcher.Batch batch;
         final int firstTestIndex;
         final int lastTestIndex;
-        NeuralNetwork network;
+        final NeuralNetwork network;
+        final int threshold;
 
-        GradientCalculation(TestSet.Test[] tests, int firstTestIndex, int lastTestIndex, NeuralNetwork network) {
-            this.tests = tests;
+        GradientCalculation(BatchPrefetcher.Batch batch, int firstTestIndex, int lastTestIndex, NeuralNetwork network, int threshold) {
+            this.batch = batch;
             this.firstTestIndex = firstTestIndex;
             this.lastTestIndex = lastTestIndex;
             this.network = network;
+            this.threshold = threshold;
         }
 
         @Override
-        public Matrix[] call() {
-            Matrix[] gradients = new Matrix[2];
+        protected void compute() {
+            if (lastTestIndex - firstTestIndex > threshold) {
+                int middleTestIndex = (firstTestIndex + lastTestIndex) >>> 1;
+
+                invokeAll(new GradientCalculation(batch, firstTestIndex, middleTestIndex, network, threshold),
+                        new GradientCalculation(batch, middleTestIndex, lastTestIndex, network, threshold));
 
-            if (firstTestIndex == lastTestIndex) {
-                return gradients;
+                return;
             }
 
-            int testIndex = firstTestIndex;
+            if (precision == Precision.FLOAT) {
+                FloatGradientAccumulator floatAccumulator = getThreadFloatAccumulator(floatNetwork);
+                floatAccumulator.addRows(floatNetwork, batch.floatInputs, batch.floatCorrectOutputs, firstTestIndex, lastTestIndex);
+                floatAccumulator.addTo(getThreadAccumulator(network));
+                floatAccumulator.clear();
+                return;
+            }
 
-            gradients[0] = new WeightsOutputErrorGradient(network, tests[testIndex]).getOutputErrorGradient();
-            gradients[1] = new BiasesOutputErrorGradient(network, tests[testIndex]).getOutputErrorGradient();
+            getThreadAccumulator(network).addRows(network, batch.inputs, batch.correctOutputs, firstTestIndex, lastTestIndex);
+        }
+    }
 
-            ++testIndex;
+    // Sums accumulators from firstIndex (inclusive) to lastIndex (exclusive) to the first of them by pairwise tree.
+    // Halves are reduced in parallel, other accumulators are cleared after their sums are added
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    static class GradientsReduction extends RecursiveAction {
+        final GradientAccumulator[] accumulators;
+        final int firstIndex;
+        final int lastIndex;
+
+        GradientsReduction(GradientAccumulator[] accumulators, int firstIndex, int lastIndex) {
+            this.accumulators = accumulators;
+            this.firstIndex = firstIndex;
+            this.lastIndex = lastIndex;
+        }
 
-            for (; testIndex < lastTestIndex; ++testIndex) {
-                gradients[0] = gradients[0].plus(new WeightsOutputErrorGradient(network, tests[testIndex]).getOutputErrorGradient());
-                gradients[1] = gradients[1].plus(new BiasesOutputErrorGradient(network, tests[testIndex]).getOutputErrorGradient());
+        @Override
+        protected void compute() {
+            if (lastIndex - firstIndex <= 1) {
+                return;
             }
 
-            return gradients;
+            int middleIndex = (firstIndex + lastIndex) >>> 1;
+            invokeAll(new GradientsReduction(accumulators, firstIndex, middleIndex), new GradientsReduction(accumulators, middleIndex, lastIndex));
+
+            accumulators[firstIndex].add(accumulators[middleIndex]);
+            accumulators[middleIndex].clear();
         }
     }
 }
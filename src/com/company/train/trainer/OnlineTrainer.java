@@ -3,8 +3,7 @@ package com.company.train.trainer;
 import com.company.model.Matrix;
 import com.company.model.network.NeuralNetwork;
 import com.company.train.TestSet;
-import com.company.train.gradient.BiasesOutputErrorGradient;
-import com.company.train.gradient.WeightsOutputErrorGradient;
+import com.company.train.gradient.OutputErrorGradient;
 
 public class OnlineTrainer extends Trainer{
     public OnlineTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options) {
@@ -46,8 +45,9 @@ public class OnlineTrainer extends Trainer{
                 }
 
                 // Calculate output error
-                currentWeightGradient = (new WeightsOutputErrorGradient(network, currentTest).getOutputErrorGradient()).values[0];
-                currentBiasGradient = (new BiasesOutputErrorGradient(network, currentTest).getOutputErrorGradient()).values[0];
+                OutputErrorGradient currentGradient = new OutputErrorGradient(network, currentTest);
+                currentWeightGradient = currentGradient.getWeightsGradient().values;
+                currentBiasGradient = currentGradient.getBiasesGradient().values;
 
                 // Tweak network's parameters
                 tweakNetworkParametersByGradients(network, currentWeightGradient, currentBiasGradient);
@@ -56,7 +56,7 @@ public class OnlineTrainer extends Trainer{
                 for (int p = 0; p < network.weights.length; ++p) {
                     for (int j = 0; j < network.weights[p].N; ++j) {
                         for (int k = 0; k < network.weights[p].M; ++k) {
-                            previousWeightsIncrements[p].values[j][k] = network.weights[p].values[j][k] - oldWeights[p].values[j][k];
+                            previousWeightsIncrements[p].set(j, k, network.weights[p].get(j, k) - oldWeights[p].get(j, k));
                         }
                     }
                 }
@@ -64,7 +64,7 @@ public class OnlineTrainer extends Trainer{
                 // Calculate new increments of biases
                 for (int p = 0; p < network.biases.length; ++p) {
                     for (int j = 0; j < network.biases[p].N; ++j) {
-                        previousBiasesIncrements[p].values[j][0] = network.biases[p].values[j][0] - oldBiases[p].values[j][0];
+                        previousBiasesIncrements[p].set(j, 0, network.biases[p].get(j, 0) - oldBiases[p].get(j, 0));
                     }
                 }
             }
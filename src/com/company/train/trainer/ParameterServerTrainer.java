@@ -0,0 +1,288 @@
+package com.company.train.trainer;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.distributed.GradientChannel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Arrays;
+
+/*
+Data-parallel batch training by parameter server:
+
+  Every worker (GradientWorker, usually separate process) owns a shard of test set. On every step server sends current parameters
+  to all workers, every worker calculates sum of gradients of its next batch of options.batchSize() / workersCount tests,
+  and server tweaks parameters by average gradient of all batches, like OfflineTrainer does with one batch.
+  Epoch ends when every shard ends.
+
+Test set of server is used only for errors evaluation between epochs. Connection protocol is described in GradientChannel.
+ */
+public class ParameterServerTrainer extends Trainer implements AutoCloseable {
+    private final ServerSocketChannel server;
+    private final int workersCount;
+    private final int workerBatchSize;
+
+    private GradientChannel[] workers;
+    private int workersTestsCount;
+
+    private final double[] weightsGradient;
+    private final double[] biasesGradient;
+    private final double[] workerWeightsGradient;
+    private final double[] workerBiasesGradient;
+
+    private double lastSamplesPerSecond;
+
+    // Server listens on localhost port, 0 means any free port (see getPort)
+    // Throws exception if workersCount isn't positive
+    public ParameterServerTrainer(NeuralNetwork network, TestSet testSet, TrainerOptions options, int port, int workersCount) throws IOException {
+        super(network, testSet, options);
+
+        if (workersCount <= 0) {
+            throw new IllegalArgumentException("Bad argument for parameter server. Workers count must be positive.");
+        }
+
+        this.workersCount = workersCount;
+        this.workerBatchSize = Math.max(1, (options.batchSize() + workersCount - 1) / workersCount);
+
+        int weightsCount = 0;
+        int biasesCount = 0;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            weightsCount += network.weights[i].N * network.weights[i].M;
+            biasesCount += network.biases[i].N;
+        }
+
+        weightsGradient = new double[weightsCount];
+        biasesGradient = new double[biasesCount];
+        workerWeightsGradient = new double[weightsCount];
+        workerBiasesGradient = new double[biasesCount];
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", port));
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // Samples per second of all workers together during last epoch
+    public double getLastSamplesPerSecond() {
+        return lastSamplesPerSecond;
+    }
+
+    // Waits until all workers connect. Is called by first epoch, if it wasn't called before
+    public void acceptWorkers() throws IOException {
+        if (workers != null) {
+            return;
+        }
+
+        GradientChannel[] connectedWorkers = new GradientChannel[workersCount];
+
+        for (int w = 0; w < workersCount; ++w) {
+            connectedWorkers[w] = new GradientChannel(server.accept());
+
+            if (connectedWorkers[w].readInt() != GradientChannel.MAGIC) {
+                throw new IOException("Bad worker handshake.");
+            }
+
+            workersTestsCount += connectedWorkers[w].readInt();
+            writeStructure(connectedWorkers[w]);
+        }
+
+        workers = connectedWorkers;
+    }
+
+    NeuralNetwork trainEpoch(NeuralNetwork network) {
+        try {
+            return trainEpochByWorkers(network);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Stops workers and closes connections. Every connection and server are closed, even if some of them fail,
+    // first failure is thrown with others suppressed
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+
+        if (workers != null) {
+            for (GradientChannel worker : workers) {
+                try {
+                    try {
+                        worker.writeByte(GradientChannel.STOP);
+                        worker.flush();
+                    } finally {
+                        worker.close();
+                    }
+                } catch (IOException e) {
+                    exception = addFailure(exception, e);
+                }
+            }
+        }
+
+        try {
+            server.close();
+        } catch (IOException e) {
+            exception = addFailure(exception, e);
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static IOException addFailure(IOException firstException, IOException exception) {
+        if (firstException == null) {
+            return exception;
+        }
+
+        firstException.addSuppressed(exception);
+        return firstException;
+    }
+
+    private NeuralNetwork trainEpochByWorkers(NeuralNetwork network) throws IOException {
+        acceptWorkers();
+
+        // Define zero increments
+        previousWeightsIncrements = new Matrix[network.weights.length];
+        previousBiasesIncrements = new Matrix[network.biases.length];
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            previousWeightsIncrements[i] = new Matrix(network.weights[i].N, network.weights[i].M);
+            previousBiasesIncrements[i] = new Matrix(network.biases[i].N, network.biases[i].M);
+        }
+
+        for (GradientChannel worker : workers) {
+            worker.writeByte(GradientChannel.EPOCH);
+        }
+
+        boolean[] isWorkerActive = new boolean[workersCount];
+        Arrays.fill(isWorkerActive, true);
+
+        long startTime = System.nanoTime();
+        long epochTestsCount = 0;
+
+        for (int activeWorkersCount = workersCount; activeWorkersCount > 0; ) {
+            long batchStartTime = System.nanoTime();
+            long reductionNanos = 0;
+
+            // Workers calculate their batches at the same time
+            for (int w = 0; w < workersCount; ++w) {
+                if (isWorkerActive[w]) {
+                    writeParameters(workers[w], network);
+                }
+            }
+
+            Arrays.fill(weightsGradient, 0);
+            Arrays.fill(biasesGradient, 0);
+            int batchTestsCount = 0;
+
+            for (int w = 0; w < workersCount; ++w) {
+                if (!isWorkerActive[w]) {
+                    continue;
+                }
+
+                batchTestsCount += workers[w].readInt();
+                workers[w].readDouble();
+
+                if (workers[w].readByte() == 0) {
+                    isWorkerActive[w] = false;
+                    --activeWorkersCount;
+                }
+
+                workers[w].readDoubles(workerWeightsGradient, 0, workerWeightsGradient.length);
+                workers[w].readDoubles(workerBiasesGradient, 0, workerBiasesGradient.length);
+
+                long reductionStartTime = System.nanoTime();
+                Matrix.wrap(1, weightsGradient.length, weightsGradient).add(Matrix.wrap(1, weightsGradient.length, workerWeightsGradient));
+                Matrix.wrap(1, biasesGradient.length, biasesGradient).add(Matrix.wrap(1, biasesGradient.length, workerBiasesGradient));
+                reductionNanos += System.nanoTime() - reductionStartTime;
+            }
+
+            // Waiting for workers and reading their gradients is gradient phase
+            long updateStartTime = System.nanoTime();
+            phasesNanos[TrainingPhase.GRADIENT.ordinal()] += updateStartTime - batchStartTime - reductionNanos;
+            phasesNanos[TrainingPhase.REDUCTION.ordinal()] += reductionNanos;
+
+            if (batchTestsCount > 0) {
+                tweakNetworkParametersByAverageGradients(network, batchTestsCount);
+                epochTestsCount += batchTestsCount;
+            }
+
+            long batchEndTime = System.nanoTime();
+            phasesNanos[TrainingPhase.UPDATE.ordinal()] += batchEndTime - updateStartTime;
+
+            if (batchTestsCount > 0) {
+                onBatch(batchTestsCount, batchEndTime - batchStartTime);
+            }
+        }
+
+        lastSamplesPerSecond = epochTestsCount * 1e9 / (System.nanoTime() - startTime);
+        System.out.printf("%d workers, %d of %d samples, %.0f samples/sec%n", workersCount, epochTestsCount, workersTestsCount, lastSamplesPerSecond);
+
+        return network;
+    }
+
+    private void tweakNetworkParametersByAverageGradients(NeuralNetwork network, int batchTestsCount) {
+        // Save old parameters
+        Matrix[] oldWeights = new Matrix[network.weights.length];
+        Matrix[] oldBiases = new Matrix[network.biases.length];
+
+        for (int p = 0; p < network.weights.length; ++p) {
+            oldWeights[p] = new Matrix(network.weights[p]);
+            oldBiases[p] = new Matrix(network.biases[p]);
+        }
+
+        // Calculating average gradients by all tests
+        Matrix.wrap(1, weightsGradient.length, weightsGradient).scale(1.0 / batchTestsCount);
+        Matrix.wrap(1, biasesGradient.length, biasesGradient).scale(1.0 / batchTestsCount);
+
+        tweakNetworkParametersByGradients(network, weightsGradient, biasesGradient);
+
+        // Calculate new increments of parameters
+        for (int p = 0; p < network.weights.length; ++p) {
+            previousWeightsIncrements[p] = network.weights[p].minus(oldWeights[p]);
+            previousBiasesIncrements[p] = network.biases[p].minus(oldBiases[p]);
+        }
+    }
+
+    private void writeStructure(GradientChannel worker) throws IOException {
+        worker.writeInt(network.inputSize);
+        worker.writeInt(network.outputSize);
+        worker.writeInt(network.hiddenLayersCount);
+
+        for (int size : network.hiddenLayersSizes) {
+            worker.writeInt(size);
+        }
+
+        for (int i = 0; i < network.activations.length; ++i) {
+            worker.writeString(network.activations[i].name());
+        }
+
+        worker.writeString(network.lossFunction.name());
+        worker.writeInt(workerBatchSize);
+        worker.flush();
+    }
+
+    private static void writeParameters(GradientChannel worker, NeuralNetwork network) throws IOException {
+        worker.writeByte(GradientChannel.STEP);
+
+        for (Matrix weights : network.weights) {
+            for (int j = 0; j < weights.N; ++j) {
+                worker.writeDoubles(weights.values, weights.offset + j * weights.stride, weights.M);
+            }
+        }
+
+        for (Matrix biases : network.biases) {
+            for (int j = 0; j < biases.N; ++j) {
+                worker.writeDoubles(biases.values, biases.offset + j * biases.stride, 1);
+            }
+        }
+
+        worker.flush();
+    }
+}
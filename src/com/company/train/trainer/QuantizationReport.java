@@ -0,0 +1,97 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.QuantizedNeuralNetwork;
+import com.company.train.TestSet;
+
+// Comparison of quantized network with original one on every test of test set: evaluations of both networks,
+// part of tests, where their classes of output are the same, differences of outputs and parameters sizes
+public class QuantizationReport {
+    public final Evaluation originalEvaluation;
+    public final Evaluation quantizedEvaluation;
+
+    private int sameClassesCount;
+    private int testsCount;
+    private double maxOutputDifference;
+    private double outputDifferencesSum;
+    private long outputValuesCount;
+
+    public final long originalBytesCount;
+    public final long quantizedBytesCount;
+
+    private QuantizationReport(NeuralNetwork network, QuantizedNeuralNetwork quantizedNetwork) {
+        originalEvaluation = new Evaluation(Evaluation.classesCount(network.outputSize));
+        quantizedEvaluation = new Evaluation(Evaluation.classesCount(network.outputSize));
+        originalBytesCount = QuantizedNeuralNetwork.getParametersBytesCount(network);
+        quantizedBytesCount = quantizedNetwork.getParametersBytesCount();
+    }
+
+    // Calculates outputs of both networks on every test. Random access test set is read by index, so its cursor stays the same.
+    // Other test set is read by new shuffled pass
+    // Throws exception if networks have different input or output sizes
+    public static QuantizationReport of(NeuralNetwork network, QuantizedNeuralNetwork quantizedNetwork, TestSet testSet) {
+        if (network.inputSize != quantizedNetwork.inputSize || network.outputSize != quantizedNetwork.outputSize) {
+            throw new IllegalArgumentException("Bad argument for quantization report. Networks sizes don't equal.");
+        }
+
+        QuantizationReport report = new QuantizationReport(network, quantizedNetwork);
+        double[] quantizedOutput = new double[network.outputSize];
+
+        if (!testSet.isRandomAccess()) {
+            testSet.clearTestsQueue();
+        }
+
+        for (int t = 0; t < testSet.size; ++t) {
+            TestSet.Test test = testSet.isRandomAccess() ? testSet.getTestAt(t) : testSet.nextTest();
+            double[] output = network.calcOutputBy(test.input());
+            quantizedNetwork.calcOutputInto(test.input(), quantizedOutput);
+
+            report.add(network, output, quantizedOutput, test.correctOutput());
+        }
+
+        return report;
+    }
+
+    private void add(NeuralNetwork network, double[] output, double[] quantizedOutput, double[] correctOutput) {
+        originalEvaluation.add(network.lossFunction, output, correctOutput);
+        quantizedEvaluation.add(network.lossFunction, quantizedOutput, correctOutput);
+
+        if (Evaluation.classOf(output) == Evaluation.classOf(quantizedOutput)) {
+            ++sameClassesCount;
+        }
+
+        for (int k = 0; k < output.length; ++k) {
+            double difference = Math.abs(output[k] - quantizedOutput[k]);
+
+            maxOutputDifference = Math.max(maxOutputDifference, difference);
+            outputDifferencesSum += difference;
+        }
+
+        outputValuesCount += output.length;
+        ++testsCount;
+    }
+
+    // Part of tests, where quantized network gives the same class as original one
+    public double getAgreement() {
+        return testsCount == 0 ? 0 : (double)sameClassesCount / testsCount;
+    }
+
+    // Maximal absolute difference of output values
+    public double getMaxOutputDifference() {
+        return maxOutputDifference;
+    }
+
+    // Average absolute difference of output values
+    public double getAverageOutputDifference() {
+        return outputValuesCount == 0 ? 0 : outputDifferencesSum / outputValuesCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("accuracy %.2f%% -> %.2f%%, average error %f -> %f, same answers %.2f%%, output difference %f (max %f), parameters %d -> %d bytes",
+                100 * originalEvaluation.getAccuracy(), 100 * quantizedEvaluation.getAccuracy(),
+                originalEvaluation.getAverageError(), quantizedEvaluation.getAverageError(),
+                100 * getAgreement(), getAverageOutputDifference(), maxOutputDifference,
+                originalBytesCount, quantizedBytesCount);
+    }
+}
@@ -2,16 +2,29 @@ package com.company.train.trainer;
 
 import com.company.train.TestSet;
 import com.company.model.Matrix;
+import com.company.model.network.LossFunction;
 import com.company.model.network.NeuralNetwork;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 public abstract class Trainer {
     NeuralNetwork network;
     final TestSet testSet;
 
     double[] lastTrainErrorsData;
+    Evaluation lastEvaluation;
+
+    // Writes parameters after epochs in background, null if checkpoints aren't needed
+    private CheckpointWriter checkpointWriter;
+    private int trainedEpochsCount;
+
+    // Receive measurements of batches and epochs. Phases times of current epoch are summed by TrainingPhase ordinals
+    private final List<TrainingListener> listeners = new CopyOnWriteArrayList<>();
+    final long[] phasesNanos = new long[TrainingPhase.values().length];
 
     final TrainerOptions options;
 
@@ -20,25 +33,44 @@ public abstract class Trainer {
     Matrix[] previousBiasesIncrements;
 
     public Trainer(NeuralNetwork network, TestSet testSet, TrainerOptions options) {
-        this.network = new NeuralNetwork(network.inputSize, network.outputSize, network.hiddenLayersSizes);
+        this.network = network.withRandomParameters();
         this.testSet = testSet;
         this.options = options;
     }
 
+    // Squared error. Training uses loss function of network
     public static double calcOutputError(double[] output, double[] expectedOutput) {
-        double outputError = 0;
-
-        for (int i = 0; i < output.length; ++i) {
-            outputError += (output[i] - expectedOutput[i]) * (output[i] - expectedOutput[i]);
-        }
-
-        return outputError;
+        return LossFunction.SQUARED_ERROR.calcError(output, expectedOutput);
     }
 
     public double[] getLastTrainErrorsData() {
         return lastTrainErrorsData;
     }
 
+    // Errors and accuracy of network after last epoch
+    public Evaluation getLastEvaluation() {
+        return lastEvaluation;
+    }
+
+    // Network parameters are given to checkpoint writer after every epoch. Writer isn't closed by trainer
+    public void setCheckpointWriter(CheckpointWriter checkpointWriter) {
+        this.checkpointWriter = checkpointWriter;
+    }
+
+    // Listener is called by training thread after every batch and epoch
+    public void addTrainingListener(TrainingListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeTrainingListener(TrainingListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Pool, which evaluates network after every epoch
+    ForkJoinPool getEvaluationPool() {
+        return ForkJoinPool.commonPool();
+    }
+
     // Trains network by tweaking its parameters
     public NeuralNetwork trainNetwork() {
         boolean isNetworkTrainedEnough = false;
@@ -47,27 +79,39 @@ public abstract class Trainer {
             lastTrainErrorsData = new double[options.trainEpochsCount()];
 
             for (int i = 0; i < options.trainEpochsCount(); ++i) {
+                long epochStartTime = System.nanoTime();
+                long epochStartAllocatedBytes = getAllocatedBytes();
+                Arrays.fill(phasesNanos, 0);
+
                 // Tweak network's parameters
                 network = trainEpoch(new NeuralNetwork(network));
 
-                // Average error calculating
-                testSet.clearTestsQueue();
+                // Average and max errors calculating
+                long evaluationStartTime = System.nanoTime();
+                lastEvaluation = Evaluation.of(network, testSet, getEvaluationPool());
+                phasesNanos[TrainingPhase.EVALUATION.ordinal()] += System.nanoTime() - evaluationStartTime;
 
-                double maxOutputError = 0;
-                double averageOutputError = 0;
+                double maxOutputError = lastEvaluation.getMaxError();
+                double averageOutputError = lastEvaluation.getAverageError();
+                lastTrainErrorsData[i] = averageOutputError;
 
-                do {
-                    TestSet.Test currentTest = testSet.nextTest();
-                    double error = calcOutputError(network.calcOutputBy(currentTest.input()), currentTest.correctOutput());
-                    averageOutputError += error;
-                    maxOutputError = Math.max(maxOutputError, error);
-                } while (testSet.hasNextTest());
+                System.out.printf("%f -- %f -- %.2f%%%n", averageOutputError, maxOutputError, lastEvaluation.getAccuracy() * 100);
+                ++trainedEpochsCount;
 
-                averageOutputError /= testSet.size;
-                lastTrainErrorsData[i] = averageOutputError;
+                if (checkpointWriter != null) {
+                    long checkpointStartTime = System.nanoTime();
+                    checkpointWriter.onEpoch(network, trainedEpochsCount);
+                    phasesNanos[TrainingPhase.CHECKPOINT.ordinal()] += System.nanoTime() - checkpointStartTime;
+                }
 
-                System.out.printf("%f -- %f%n", averageOutputError, maxOutputError);
-                saveTrainData();
+                if (!listeners.isEmpty()) {
+                    long allocatedBytes = epochStartAllocatedBytes < 0 ? -1 : getAllocatedBytes() - epochStartAllocatedBytes;
+                    EpochMetrics metrics = new EpochMetrics(trainedEpochsCount, testSet.size, System.nanoTime() - epochStartTime, phasesNanos.clone(), allocatedBytes);
+
+                    for (TrainingListener listener : listeners) {
+                        listener.onEpoch(metrics);
+                    }
+                }
 
                 if (averageOutputError <= options.maxAcceptableAverageOutputError() && maxOutputError <= options.maxAcceptableOutputError()) {
                     isNetworkTrainedEnough = true;
@@ -79,7 +123,7 @@ public abstract class Trainer {
 
             // If network wasn't trained enough to have average error smaller than maximal acceptable error - training restarts
             if (!isNetworkTrainedEnough) {
-                network = new NeuralNetwork(network.inputSize, network.outputSize, network.hiddenLayersSizes);
+                network = network.withRandomParameters();
             }
         } while (!isNetworkTrainedEnough);
 
@@ -88,15 +132,38 @@ public abstract class Trainer {
 
     abstract NeuralNetwork trainEpoch(NeuralNetwork network);
 
+    // Trainers, which train by batches, call it after every batch
+    void onBatch(int testsCount, long durationNanos) {
+        for (TrainingListener listener : listeners) {
+            listener.onBatch(testsCount, durationNanos);
+        }
+    }
+
+    // Heap bytes allocated by all threads of JVM since its start, -1 if JVM doesn't measure them
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+
+        return -1;
+    }
+
     NeuralNetwork tweakNetworkParametersByGradients(NeuralNetwork network, double[] weightsErrorGradient, double[] biasesErrorGradient) {
         // Weights tweak
         int currentWeightIndex = 0;
         
         for (int i = 0; i < network.weights.length; ++i) {
-            for (int j = 0; j < network.weights[i].N; ++j) {
-                for (int k = 0; k < network.weights[i].M; ++k, ++currentWeightIndex) {
-                    network.weights[i].values[j][k] = network.weights[i].values[j][k] - options.learnSpeed() * weightsErrorGradient[currentWeightIndex];
-                    network.weights[i].values[j][k] += options.inertiaCoefficient() * previousWeightsIncrements[i].values[j][k];
+            Matrix weights = network.weights[i];
+            Matrix increments = previousWeightsIncrements[i];
+
+            for (int j = 0; j < weights.N; ++j) {
+                int rowStart = weights.offset + j * weights.stride;
+                int incrementsRowStart = increments.offset + j * increments.stride;
+
+                for (int k = 0; k < weights.M; ++k, ++currentWeightIndex) {
+                    weights.values[rowStart + k] = weights.values[rowStart + k] - options.learnSpeed() * weightsErrorGradient[currentWeightIndex];
+                    weights.values[rowStart + k] += options.inertiaCoefficient() * increments.values[incrementsRowStart + k];
                 }
             }
         }
@@ -105,34 +172,16 @@ public abstract class Trainer {
         int currentBiasIndex = 0;
         
         for (int i = 0; i < network.biases.length; ++i) {
-            for (int j = 0; j < network.biases[i].N; ++j, ++currentBiasIndex) {
-                network.biases[i].values[j][0] = network.biases[i].values[j][0] - options.learnSpeed() * biasesErrorGradient[currentBiasIndex];
-                network.biases[i].values[j][0] += options.inertiaCoefficient() * previousBiasesIncrements[i].values[j][0];
+            Matrix biases = network.biases[i];
+            Matrix increments = previousBiasesIncrements[i];
+
+            for (int j = 0; j < biases.N; ++j, ++currentBiasIndex) {
+                int biasIndex = biases.offset + j * biases.stride;
+                biases.values[biasIndex] = biases.values[biasIndex] - options.learnSpeed() * biasesErrorGradient[currentBiasIndex];
+                biases.values[biasIndex] += options.inertiaCoefficient() * increments.values[increments.offset + j * increments.stride];
             }
         }
 
         return network;
     }
-
-    void saveTrainData() {
-        String fileName = "C:\\Users\\Айнур\\backpropagation\\src\\com\\company\\processes_data\\train-data.txt";
-        FileWriter writer;
-
-        try {
-            writer = new FileWriter(fileName, true);
-            for (int i = 0; i < network.weights.length; ++i) {
-                writer.append(network.weights[i].toString());
-                writer.append("e\n");
-                writer.append(network.biases[i].toString());
-                writer.append("e\n");
-            }
-
-            writer.append("$\n");
-
-            writer.flush( );
-            writer.close( );
-        } catch (IOException e) {
-            System.out.println(e.getMessage());
-        }
-    }
 }
@@ -1,4 +1,16 @@
 package com.company.train.trainer;
 
-public record TrainerOptions(double learnSpeed, double inertiaCoefficient, int trainEpochsCount, int batchSize, double maxAcceptableAverageOutputError, double maxAcceptableOutputError) {
+// parallelism - quantity of threads, which calculate gradients
+public record TrainerOptions(double learnSpeed, double inertiaCoefficient, int trainEpochsCount, int batchSize, double maxAcceptableAverageOutputError, double maxAcceptableOutputError, int parallelism) {
+    // Throws exception if parallelism isn't positive
+    public TrainerOptions {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Bad argument for trainer options. Parallelism must be positive.");
+        }
+    }
+
+    // Parallelism is quantity of available processors
+    public TrainerOptions(double learnSpeed, double inertiaCoefficient, int trainEpochsCount, int batchSize, double maxAcceptableAverageOutputError, double maxAcceptableOutputError) {
+        this(learnSpeed, inertiaCoefficient, trainEpochsCount, batchSize, maxAcceptableAverageOutputError, maxAcceptableOutputError, Runtime.getRuntime().availableProcessors());
+    }
 }
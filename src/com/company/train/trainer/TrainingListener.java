@@ -0,0 +1,11 @@
+package com.company.train.trainer;
+
+// Receives measurements of training. Methods are called by training thread, so they must be fast
+public interface TrainingListener {
+    // After every batch of trainers, which train by batches
+    default void onBatch(int testsCount, long durationNanos) {
+    }
+
+    // After every epoch
+    void onEpoch(EpochMetrics metrics);
+}
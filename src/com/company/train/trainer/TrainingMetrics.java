@@ -0,0 +1,222 @@
+package com.company.train.trainer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Listener, which sums measurements of training and publishes them by JMX as MBean (see TrainingMetricsMBean):
+
+  Trainer trainer = ...;
+  TrainingMetrics metrics = new TrainingMetrics();
+  metrics.register("main");                  // com.company.train:type=TrainingMetrics,name=main
+  trainer.addTrainingListener(metrics);
+
+Batch latencies are counted in buckets of powers of 2 microseconds, so recording is one increment and percentiles
+are upper bounds of buckets. Training thread writes, JMX threads read, so all values are atomic.
+ */
+public class TrainingMetrics implements TrainingListener, TrainingMetricsMBean {
+    public static final String DOMAIN = "com.company.train";
+
+    // Last bucket counts every latency from 2^(BUCKETS_COUNT - 2) microseconds (more than 3 days)
+    static final int BUCKETS_COUNT = 40;
+
+    private final AtomicLongArray batchLatencyBuckets = new AtomicLongArray(BUCKETS_COUNT);
+    private final AtomicLong batchesCount = new AtomicLong();
+    private final AtomicLong epochsCount = new AtomicLong();
+    private final AtomicLong testsCount = new AtomicLong();
+    private final AtomicLongArray phasesNanos = new AtomicLongArray(TrainingPhase.values().length);
+    private volatile EpochMetrics lastEpoch;
+
+    private ObjectName registeredName;
+
+    @Override
+    public void onBatch(int testsCount, long durationNanos) {
+        batchLatencyBuckets.incrementAndGet(bucketOf(durationNanos / 1000));
+        batchesCount.incrementAndGet();
+    }
+
+    @Override
+    public void onEpoch(EpochMetrics metrics) {
+        for (TrainingPhase phase : TrainingPhase.values()) {
+            phasesNanos.addAndGet(phase.ordinal(), metrics.getPhaseNanos(phase));
+        }
+
+        testsCount.addAndGet(metrics.testsCount());
+        epochsCount.incrementAndGet();
+        lastEpoch = metrics;
+    }
+
+    // Registers metrics in platform MBean server by name DOMAIN:type=TrainingMetrics,name=<name>
+    // Throws exception if name is taken or can't be part of object name
+    public synchronized ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=TrainingMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        registeredName = objectName;
+
+        return objectName;
+    }
+
+    // Does nothing if metrics aren't registered
+    public synchronized void unregister() throws JMException {
+        if (registeredName == null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        if (server.isRegistered(registeredName)) {
+            server.unregisterMBean(registeredName);
+        }
+
+        registeredName = null;
+    }
+
+    // Metrics of last epoch, null if there were no epochs
+    public EpochMetrics getLastEpoch() {
+        return lastEpoch;
+    }
+
+    @Override
+    public long getEpochsCount() {
+        return epochsCount.get();
+    }
+
+    @Override
+    public long getBatchesCount() {
+        return batchesCount.get();
+    }
+
+    @Override
+    public long getTestsCount() {
+        return testsCount.get();
+    }
+
+    @Override
+    public double getLastEpochMillis() {
+        EpochMetrics metrics = lastEpoch;
+        return metrics == null ? 0 : metrics.durationNanos() / 1e6;
+    }
+
+    @Override
+    public double getLastEpochTestsPerSecond() {
+        EpochMetrics metrics = lastEpoch;
+        return metrics == null ? 0 : metrics.getTestsPerSecond();
+    }
+
+    @Override
+    public double getLastEpochAllocationRate() {
+        EpochMetrics metrics = lastEpoch;
+
+        if (metrics == null) {
+            return 0;
+        }
+
+        double rate = metrics.getAllocationRate();
+        return rate < 0 ? -1 : rate / (1 << 20);
+    }
+
+    @Override
+    public double getTotalGradientMillis() {
+        return getTotalMillis(TrainingPhase.GRADIENT);
+    }
+
+    @Override
+    public double getTotalReductionMillis() {
+        return getTotalMillis(TrainingPhase.REDUCTION);
+    }
+
+    @Override
+    public double getTotalUpdateMillis() {
+        return getTotalMillis(TrainingPhase.UPDATE);
+    }
+
+    @Override
+    public double getTotalEvaluationMillis() {
+        return getTotalMillis(TrainingPhase.EVALUATION);
+    }
+
+    @Override
+    public double getTotalCheckpointMillis() {
+        return getTotalMillis(TrainingPhase.CHECKPOINT);
+    }
+
+    @Override
+    public long[] getBatchLatencyHistogram() {
+        long[] histogram = new long[BUCKETS_COUNT];
+
+        for (int i = 0; i < BUCKETS_COUNT; ++i) {
+            histogram[i] = batchLatencyBuckets.get(i);
+        }
+
+        return histogram;
+    }
+
+    @Override
+    public long getBatchLatencyP50Micros() {
+        return getBatchLatencyPercentileMicros(50);
+    }
+
+    @Override
+    public long getBatchLatencyP99Micros() {
+        return getBatchLatencyPercentileMicros(99);
+    }
+
+    // Upper bound of latency bucket, which percentile part of batches don't exceed, 0 if there were no batches
+    public long getBatchLatencyPercentileMicros(double percentile) {
+        long[] histogram = getBatchLatencyHistogram();
+        long count = 0;
+
+        for (long bucketCount : histogram) {
+            count += bucketCount;
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+
+        for (int i = 0; i < BUCKETS_COUNT; ++i) {
+            rank -= histogram[i];
+
+            if (rank <= 0) {
+                return 1L << i;
+            }
+        }
+
+        return 1L << (BUCKETS_COUNT - 1);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS_COUNT; ++i) {
+            batchLatencyBuckets.set(i, 0);
+        }
+
+        for (int i = 0; i < phasesNanos.length(); ++i) {
+            phasesNanos.set(i, 0);
+        }
+
+        batchesCount.set(0);
+        epochsCount.set(0);
+        testsCount.set(0);
+        lastEpoch = null;
+    }
+
+    // Bucket i has latencies from 2^(i-1) (exclusive) to 2^i (inclusive) microseconds, bucket 0 has latencies to 1 microsecond
+    static int bucketOf(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+
+        return Math.min(BUCKETS_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(micros - 1));
+    }
+
+    private double getTotalMillis(TrainingPhase phase) {
+        return phasesNanos.get(phase.ordinal()) / 1e6;
+    }
+}
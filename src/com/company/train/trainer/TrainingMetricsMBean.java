@@ -0,0 +1,36 @@
+package com.company.train.trainer;
+
+// Attributes of TrainingMetrics, which JMX clients read. Times are in milliseconds, latencies are in microseconds
+public interface TrainingMetricsMBean {
+    long getEpochsCount();
+
+    long getBatchesCount();
+
+    long getTestsCount();
+
+    double getLastEpochMillis();
+
+    double getLastEpochTestsPerSecond();
+
+    // Megabytes per second, -1 if allocations aren't measured
+    double getLastEpochAllocationRate();
+
+    double getTotalGradientMillis();
+
+    double getTotalReductionMillis();
+
+    double getTotalUpdateMillis();
+
+    double getTotalEvaluationMillis();
+
+    double getTotalCheckpointMillis();
+
+    // Quantities of batches by latency buckets, bucket i has latencies from 2^(i-1) (exclusive) to 2^i (inclusive) microseconds
+    long[] getBatchLatencyHistogram();
+
+    long getBatchLatencyP50Micros();
+
+    long getBatchLatencyP99Micros();
+
+    void reset();
+}
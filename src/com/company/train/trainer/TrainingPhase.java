@@ -0,0 +1,10 @@
+package com.company.train.trainer;
+
+// Parts of epoch, which time is measured separately (see EpochMetrics)
+public enum TrainingPhase {
+    GRADIENT,   // Gradients of batch tests are calculated
+    REDUCTION,  // Gradients sums of threads are summed
+    UPDATE,     // Network parameters are tweaked by gradient
+    EVALUATION, // Network is evaluated on test set after epoch
+    CHECKPOINT  // Network parameters are given to checkpoint writer
+}
@@ -0,0 +1,84 @@
+package com.company.inference;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.MappedTestSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+class BatchScorerTest {
+    @Test
+    void testPredictionsOfCsvAndBinaryFilesAreInInputOrder() throws IOException {
+        NeuralNetwork network = new NeuralNetwork(6, 10, new int[] {8});
+        Path csv = Files.createTempFile("digits", ".csv");
+        Path binary = Files.createTempFile("digits", ".bin");
+        Path csvPredictions = Files.createTempFile("predictions", ".csv");
+        Path binaryPredictions = Files.createTempFile("predictions", ".csv");
+
+        try {
+            Random random = new Random(1);
+            double[][] inputs = new double[1000][6];
+            StringBuilder text = new StringBuilder();
+
+            for (double[] input : inputs) {
+                text.append(random.nextInt(10));
+
+                for (int k = 0; k < input.length; ++k) {
+                    int pixel = random.nextInt(256);
+                    input[k] = pixel / 255.0;
+                    text.append(',').append(pixel);
+                }
+
+                text.append('\n');
+            }
+
+            Files.writeString(csv, text);
+            MappedTestSet.convertDigitsImages(csv.toString(), binary.toString());
+
+            // Chunks are smaller than file, so they are scored by many threads out of order
+            BatchScorer scorer = new BatchScorer(network, 37, 4, true);
+
+            assert scorer.score(csv.toString(), csvPredictions.toString()) == inputs.length;
+            assert scorer.score(binary.toString(), binaryPredictions.toString()) == inputs.length;
+
+            List<String> csvLines = Files.readAllLines(csvPredictions);
+            List<String> binaryLines = Files.readAllLines(binaryPredictions);
+
+            assert csvLines.size() == inputs.length;
+            assert binaryLines.size() == inputs.length;
+
+            for (int i = 0; i < inputs.length; ++i) {
+                double[] expectedOutput = network.calcOutputBy(inputs[i]);
+                int expectedClass = 0;
+
+                for (int k = 1; k < expectedOutput.length; ++k) {
+                    if (expectedOutput[k] > expectedOutput[expectedClass]) {
+                        expectedClass = k;
+                    }
+                }
+
+                double[] csvValues = InferenceServer.parseValues(csvLines.get(i));
+                double[] binaryValues = InferenceServer.parseValues(binaryLines.get(i));
+
+                assert csvValues[0] == expectedClass;
+                assert csvValues.length == expectedOutput.length + 1;
+                assert binaryValues.length == expectedOutput.length + 1;
+
+                for (int k = 0; k < expectedOutput.length; ++k) {
+                    assert Math.abs(csvValues[k + 1] - expectedOutput[k]) < 1e-12;
+                    // Binary file has float inputs
+                    assert Math.abs(binaryValues[k + 1] - expectedOutput[k]) < 1e-5;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(csvPredictions);
+            Files.deleteIfExists(binaryPredictions);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.company.inference;
+
+import com.company.model.Matrix;
+import com.company.model.network.NeuralNetwork;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class InferenceServerTest {
+    @Test
+    void testBatchedOutputsEqualNetworkOutputs() throws ExecutionException, InterruptedException {
+        NeuralNetwork network = new NeuralNetwork(8, 3, new int[] {6});
+
+        try (MicroBatcher batcher = new MicroBatcher(network, 16, 5_000_000, 1024)) {
+            List<double[]> inputs = new ArrayList<>();
+            List<CompletableFuture<double[]>> outputs = new ArrayList<>();
+
+            for (int r = 0; r < 100; ++r) {
+                double[] input = new double[8];
+                input[r % 8] = r;
+                inputs.add(input);
+                outputs.add(batcher.submit(input));
+            }
+
+            for (int r = 0; r < 100; ++r) {
+                double[] expectedOutput = network.calcOutputBy(inputs.get(r));
+                double[] output = outputs.get(r).get();
+
+                for (int k = 0; k < expectedOutput.length; ++k) {
+                    assert Math.abs(output[k] - expectedOutput[k]) < 1e-12;
+                }
+            }
+
+            // Requests were queued at once, so they were batched
+            assert batcher.getBatchesCount() < 100;
+            assert batcher.getAverageBatchSize() > 1;
+        }
+    }
+
+    @Test
+    void testServerAnswersLoadGenerator() throws IOException, InterruptedException {
+        NeuralNetwork network = new NeuralNetwork(10, 4, new int[] {8});
+
+        try (InferenceServer server = new InferenceServer(network, 0, 32, 500)) {
+            LoadGenerator.Result result = LoadGenerator.run(server.getPort(), 10, 16, 400);
+
+            assert result.failedRequestsCount() == 0;
+            assert result.sortedLatencies().length == 400;
+            assert result.getLatencyPercentile(50) <= result.getLatencyPercentile(99);
+
+            double[] input = {1, 0, 0, 2, 0, 0, 3, 0, 0, 4};
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/predict");
+
+            try (HttpClient client = HttpClient.newHttpClient()) {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString("1, 0, 0, 2, 0, 0, 3, 0, 0, 4")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                double[] output = InferenceServer.parseValues(response.body());
+                double[] expectedOutput = network.calcOutputBy(input);
+
+                assert response.statusCode() == 200;
+
+                for (int k = 0; k < expectedOutput.length; ++k) {
+                    assert Math.abs(output[k] - expectedOutput[k]) < 1e-12;
+                }
+
+                HttpResponse<String> badResponse = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString("1, 2")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                assert badResponse.statusCode() == 400;
+            }
+        }
+    }
+
+    @Test
+    void testFailedCalculationIsServerErrorAndRejectedRequestIsUnavailable() throws IOException, InterruptedException {
+        NeuralNetwork network = new NeuralNetwork(2, 1, new int[] {2}) {
+            @Override
+            public Matrix calcOutputBy(Matrix inputs) {
+                throw new IllegalStateException("Network failed.");
+            }
+        };
+
+        try (InferenceServer server = new InferenceServer(network, 0, 4, 100);
+             HttpClient client = HttpClient.newHttpClient()) {
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/predict");
+            HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString("1, 2")).build();
+
+            assert client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode() == 500;
+
+            server.getBatcher().close();
+
+            assert client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode() == 503;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.company.model;
+
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Softmax;
+import com.company.model.network.FloatNeuralNetwork;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.gradient.FloatGradientAccumulator;
+import com.company.train.gradient.GradientAccumulator;
+import org.junit.jupiter.api.Test;
+
+class FloatNeuralNetworkTest {
+    @Test
+    void testFloatMatrixMultiplication() {
+        // Dimensions aren't multiples of block and vector sizes, so tails are checked too
+        Matrix a = new RandomMatrix(70, 37);
+        Matrix b = new RandomMatrix(45, 37);
+        Matrix v = new RandomMatrix(37, 1);
+
+        assertClose(new FloatMatrix(a).multiplyTransposedRight(new FloatMatrix(b)).toMatrix(), a.multiplyTransposedRight(b), 1e-4);
+        assertClose(new FloatMatrix(a).multiplyVectorInto(new FloatMatrix(v), new FloatMatrix(70, 1)).toMatrix(), a.multiply(v), 1e-4);
+        assertClose(new FloatMatrix(b).multiplyTransposedLeftVectorInto(new FloatMatrix(45, 1).fill(1), new FloatMatrix(37, 1)).toMatrix(),
+                b.multiplyTransposedLeft(new Matrix(45, 1).fill(1)), 1e-4);
+    }
+
+    @Test
+    void testOutputsMatchDoubleNetwork() {
+        NeuralNetwork network = new NeuralNetwork(20, 5, new int[] {16, 9},
+                new ActivationFunction[] {ActivationFunctionsEnum.RELU, ActivationFunctionsEnum.TANH, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        FloatNeuralNetwork floatNetwork = new FloatNeuralNetwork(network);
+        Matrix inputs = new RandomMatrix(13, 20);
+
+        assertClose(floatNetwork.calcOutputBy(inputs), network.calcOutputBy(inputs), 1e-4);
+
+        float[] input = new float[20];
+
+        for (int j = 0; j < input.length; ++j) {
+            input[j] = (float)inputs.get(3, j);
+        }
+
+        assertClose(FloatMatrix.wrap(1, 5, floatNetwork.calcOutputBy(input)).toMatrix(), network.calcOutputBy(inputs).row(3), 1e-4);
+    }
+
+    @Test
+    void testGradientsMatchDoubleGradients() {
+        NeuralNetwork network = new NeuralNetwork(6, 3, new int[] {8, 4});
+        FloatNeuralNetwork floatNetwork = new FloatNeuralNetwork(network);
+        Matrix inputs = new RandomMatrix(10, 6);
+        Matrix correctOutputs = new Matrix(10, 3);
+
+        for (int i = 0; i < 10; ++i) {
+            correctOutputs.set(i, i % 3, 1);
+        }
+
+        GradientAccumulator gradient = new GradientAccumulator(network);
+        gradient.addRows(network, inputs, correctOutputs, 0, 10);
+
+        FloatGradientAccumulator floatGradient = new FloatGradientAccumulator(floatNetwork);
+        floatGradient.addRows(floatNetwork, new FloatMatrix(inputs), new FloatMatrix(correctOutputs), 0, 10);
+
+        GradientAccumulator floatGradientSum = new GradientAccumulator(network);
+        floatGradient.addTo(floatGradientSum);
+
+        assert floatGradientSum.getTestsCount() == 10;
+        assert Math.abs(floatGradientSum.getOutputError() - gradient.getOutputError()) < 1e-4;
+
+        for (int i = 0; i < network.weights.length; ++i) {
+            assertClose(floatGradient.getLayerWeightsGradient(i).toMatrix(), gradient.getLayerWeightsGradient(i), 1e-4);
+            assertClose(floatGradientSum.getLayerBiasesGradient(i), gradient.getLayerBiasesGradient(i), 1e-4);
+        }
+    }
+
+    private static void assertClose(Matrix actual, Matrix expected, double tolerance) {
+        assert actual.N == expected.N && actual.M == expected.M;
+
+        for (int i = 0; i < actual.N; ++i) {
+            for (int j = 0; j < actual.M; ++j) {
+                assert Math.abs(actual.get(i, j) - expected.get(i, j)) < tolerance;
+            }
+        }
+    }
+}
@@ -2,7 +2,11 @@ package com.company.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
 
 class MatrixTest {
 
@@ -11,7 +15,7 @@ class MatrixTest {
         Matrix m1 = new Matrix(3, 4, new double[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
         Matrix m2 = new Matrix(3, 4, new double[] {12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1});
 
-        assert Arrays.deepEquals(m1.plus(m2).values, new Matrix(3, 4, new double[] {13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13}).values);
+        assert Arrays.equals(m1.plus(m2).values, new Matrix(3, 4, new double[] {13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13}).values);
     }
 
     @Test
@@ -19,6 +23,194 @@ class MatrixTest {
         Matrix m1 = new Matrix(2, 3, new double[] {1, 2, 3, 4, 5, 6});
         Matrix m2 = new Matrix(3, 4, new double[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
 
-        assert Arrays.deepEquals(m1.multiply(m2).values, new Matrix(2, 4, new double[] {38, 44, 50, 56, 83, 98, 113, 128}).values);
+        assert Arrays.equals(m1.multiply(m2).values, new Matrix(2, 4, new double[] {38, 44, 50, 56, 83, 98, 113, 128}).values);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMatrixViews() {
+        double[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        Matrix m = Matrix.wrap(3, 4, values);
+
+        m.set(1, 2, 70);
+        assert values[6] == 70;
+
+        assert Arrays.equals(m.row(1).toArray(), new double[] {5, 6, 70, 8});
+        assert Arrays.equals(m.column(2).toArray(), new double[] {3, 70, 11});
+        assert Arrays.equals(m.view(1, 1, 2, 2).toArray(), new double[] {6, 70, 10, 11});
+
+        Matrix column = m.column(0);
+        column.add(new Matrix(3, 1, new double[] {1, 1, 1}));
+        assert Arrays.equals(values, new double[] {2, 2, 3, 4, 6, 6, 70, 8, 10, 10, 11, 12});
+
+        Matrix product = m.view(0, 1, 2, 3).multiply(m.column(3).view(0, 0, 3, 1));
+        assert Arrays.equals(product.values, new double[] {2 * 4 + 3 * 8 + 4 * 12, 6 * 4 + 70 * 8 + 8 * 12});
+    }
+
+    @Test
+    void testBlockedAndTransposedMultiplication() {
+        // Dimensions aren't multiples of block size, so partial blocks are checked too
+        Matrix a = new RandomMatrix(70, 150);
+        Matrix b = new RandomMatrix(150, 90);
+        Matrix c = new RandomMatrix(70, 90);
+
+        Matrix product = a.multiply(b);
+        Matrix transposedLeftProduct = a.multiplyTransposedLeft(c);
+        Matrix transposedRightProduct = b.multiplyTransposedRight(c);
+
+        for (int i = 0; i < a.N; ++i) {
+            for (int j = 0; j < b.M; ++j) {
+                double expected = 0;
+
+                for (int k = 0; k < a.M; ++k) {
+                    expected += a.get(i, k) * b.get(k, j);
+                }
+
+                assert Math.abs(product.get(i, j) - expected) < 0.000000001;
+            }
+        }
+
+        for (int i = 0; i < a.M; ++i) {
+            for (int j = 0; j < c.M; ++j) {
+                double expected = 0;
+
+                for (int k = 0; k < a.N; ++k) {
+                    expected += a.get(k, i) * c.get(k, j);
+                }
+
+                assert Math.abs(transposedLeftProduct.get(i, j) - expected) < 0.000000001;
+            }
+        }
+
+        for (int i = 0; i < b.N; ++i) {
+            for (int j = 0; j < c.N; ++j) {
+                double expected = 0;
+
+                for (int k = 0; k < b.M; ++k) {
+                    expected += b.get(i, k) * c.get(j, k);
+                }
+
+                assert Math.abs(transposedRightProduct.get(i, j) - expected) < 0.000000001;
+            }
+        }
+
+        Matrix vector = new RandomMatrix(70, 1);
+        assert Arrays.equals(vector.multiplyTransposedRight(vector).values, vector.multiply(new Matrix(1, 70, vector.values)).values);
+    }
+
+    @Test
+    void testViewsWithOverlappingRowsAreRejected() {
+        double[] values = new double[12];
+        float[] floatValues = new float[12];
+
+        assert Matrix.wrap(3, 2, values, 1, 4).get(2, 1) == 0;
+        assert Matrix.wrap(1, 3, values, 0, 0).M == 3;
+
+        for (int stride : new int[] {-4, 0, 3}) {
+            boolean isMatrixRejected = false;
+            boolean isFloatMatrixRejected = false;
+
+            try {
+                Matrix.wrap(3, 4, values, 0, stride);
+            } catch (IllegalArgumentException e) {
+                isMatrixRejected = true;
+            }
+
+            try {
+                FloatMatrix.wrap(3, 4, floatValues, 0, stride);
+            } catch (IllegalArgumentException e) {
+                isFloatMatrixRejected = true;
+            }
+
+            assert isMatrixRejected;
+            assert isFloatMatrixRejected;
+        }
+    }
+
+    @Test
+    void testVectorKernelsMatchScalarKernels() {
+        MatrixKernels vectorKernels = MatrixKernels.vectorKernels();
+
+        // Vector API isn't available in this JVM, there is nothing to compare
+        if (vectorKernels == null) {
+            return;
+        }
+
+        MatrixKernels scalarKernels = new ScalarMatrixKernels();
+        double[] x = new RandomMatrix(1, 101).values;
+        double[] y = new RandomMatrix(1, 101).values;
+
+        // Odd lengths and offsets check tails of vector loops
+        assert Math.abs(vectorKernels.dot(x, 3, y, 1, 97) - scalarKernels.dot(x, 3, y, 1, 97)) < 0.000000001;
+
+        double[] vectorDots = new double[8];
+        double[] scalarDots = new double[8];
+        vectorKernels.dot4(x, 1, 23, y, 0, 21, vectorDots, 1, 2);
+        scalarKernels.dot4(x, 1, 23, y, 0, 21, scalarDots, 1, 2);
+
+        for (int i = 0; i < vectorDots.length; ++i) {
+            assert Math.abs(vectorDots[i] - scalarDots[i]) < 0.000000001;
+        }
+
+        double[] vectorResult = y.clone();
+        double[] scalarResult = y.clone();
+        vectorKernels.axpy(0.3, x, 2, vectorResult, 1, 99);
+        scalarKernels.axpy(0.3, x, 2, scalarResult, 1, 99);
+        vectorKernels.subtract(x, 0, vectorResult, 0, 101);
+        scalarKernels.subtract(x, 0, scalarResult, 0, 101);
+        vectorKernels.scale(-1.5, vectorResult, 5, 90);
+        scalarKernels.scale(-1.5, scalarResult, 5, 90);
+        vectorKernels.sigmoid(vectorResult, 0, vectorResult, 0, 101);
+        scalarKernels.sigmoid(scalarResult, 0, scalarResult, 0, 101);
+
+        for (int i = 0; i < y.length; ++i) {
+            assert Math.abs(vectorResult[i] - scalarResult[i]) < 0.000000001;
+        }
+
+        assert vectorKernels.dot(randomBytes(301), 3, randomBytes(300), 1, 293) == scalarKernels.dot(randomBytes(301), 3, randomBytes(300), 1, 293);
+    }
+
+    @Test
+    void testVectorKernelsWorkWith128BitVectors() throws IOException, InterruptedException {
+        if (MatrixKernels.vectorKernels() == null) {
+            return;
+        }
+
+        // Registers of SSE and NEON width. Vector kernels are forced, so JVM fails if they can't be initialized
+        String classPath = Path.of(Matrix.class.getProtectionDomain().getCodeSource().getLocation().getPath()) + File.pathSeparator
+                + Path.of(MatrixTest.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "--add-modules", "jdk.incubator.vector", "-XX:MaxVectorSize=16", "-Dbackpropagation.kernels=vector",
+                "-cp", classPath, NarrowVectorsCheck.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes());
+
+        assert process.waitFor() == 0 : output;
+        assert output.contains("vector") : output;
+    }
+
+    // Runs in JVM with 128-bit vectors, exits with 1 if vector kernels don't match scalar ones
+    static class NarrowVectorsCheck {
+        public static void main(String[] args) {
+            MatrixKernels vectorKernels = MatrixKernels.INSTANCE;
+            MatrixKernels scalarKernels = new ScalarMatrixKernels();
+            double[] x = new RandomMatrix(1, 101).values;
+            double[] y = new RandomMatrix(1, 101).values;
+            byte[] xBytes = randomBytes(301);
+            byte[] yBytes = randomBytes(300);
+
+            boolean isMatching = Math.abs(vectorKernels.dot(x, 3, y, 1, 97) - scalarKernels.dot(x, 3, y, 1, 97)) < 0.000000001
+                    && vectorKernels.dot(xBytes, 3, yBytes, 1, 293) == scalarKernels.dot(xBytes, 3, yBytes, 1, 293);
+
+            System.out.println(Matrix.getKernelsName());
+            System.exit(isMatching ? 0 : 1);
+        }
+    }
+
+    // Same bytes for the same length, values cover whole byte range
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
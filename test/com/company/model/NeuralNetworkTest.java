@@ -1,9 +1,23 @@
 package com.company.model;
 
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Sigmoid;
+import com.company.model.activation.Softmax;
+import com.company.model.network.LossFunction;
 import com.company.model.network.NeuralNetwork;
+import com.company.model.network.Workspace;
 import com.company.train.trainer.Trainer;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 class NeuralNetworkTest {
 
     @Test
@@ -14,4 +28,154 @@ class NeuralNetworkTest {
 
         assert Trainer.calcOutputError(network.calcOutputBy(new double[] {1, 0, 1}), new double[] {0.866, 0.688}) < 0.000001;
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBatchOutputCalculation() {
+        NeuralNetwork network = new NeuralNetwork(20, 5, new int[] {7, 9});
+        double[][] inputs = new double[13][];
+
+        for (int i = 0; i < inputs.length; ++i) {
+            inputs[i] = new RandomMatrix(1, 20).values;
+        }
+
+        double[][] outputs = network.calcOutputBy(inputs);
+
+        for (int i = 0; i < inputs.length; ++i) {
+            assert Trainer.calcOutputError(outputs[i], network.calcOutputBy(inputs[i])) < 0.000000001;
+        }
+
+        ActivationFunction[] activations = {ActivationFunctionsEnum.RELU, ActivationFunctionsEnum.TANH, Softmax.SOFTMAX};
+        network = new NeuralNetwork(20, 5, new int[] {7, 9}, activations, LossFunction.CROSS_ENTROPY);
+        outputs = network.calcOutputBy(inputs);
+
+        for (int i = 0; i < inputs.length; ++i) {
+            assert Trainer.calcOutputError(outputs[i], network.calcOutputBy(inputs[i])) < 0.000000001;
+            assert Math.abs(Arrays.stream(outputs[i]).sum() - 1) < 0.000000001;
+        }
+    }
+
+    @Test
+    void testSteadyStateOutputCalculationDoesNotAllocate() {
+        NeuralNetwork network = new NeuralNetwork(784, 10, new int[] {32, 16});
+        Workspace workspace = new Workspace(network);
+        double[] input = new RandomMatrix(1, 784).values;
+        double[] output = new double[10];
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long minAllocatedBytes = Long.MAX_VALUE;
+
+        // JIT needs warm-up calls to compile the loops, so allocation is measured several times and minimum is taken
+        for (int round = 0; round < 20; ++round) {
+            long allocatedBytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+
+            for (int i = 0; i < 1000; ++i) {
+                network.calcOutputInto(input, output, workspace);
+            }
+
+            minAllocatedBytes = Math.min(minAllocatedBytes, threadBean.getCurrentThreadAllocatedBytes() - allocatedBytesBefore);
+        }
+
+        assert minAllocatedBytes == 0;
+        assert Trainer.calcOutputError(output, network.calcOutputBy(input)) == 0;
+    }
+
+    @Test
+    void testSavedNetworkIsLoadedExactly() throws IOException {
+        NeuralNetwork network = new NeuralNetwork(6, 3, new int[] {5, 4},
+                new ActivationFunction[] {ActivationFunctionsEnum.LEAKY_RELU, Sigmoid.TABLE, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        Path file = Files.createTempFile("network", ".bin");
+
+        try {
+            network.save(file.toString());
+            NeuralNetwork loadedNetwork = NeuralNetwork.load(file.toString());
+
+            assert loadedNetwork.inputSize == 6 && loadedNetwork.outputSize == 3;
+            assert Arrays.equals(loadedNetwork.hiddenLayersSizes, new int[] {5, 4});
+            assert Arrays.equals(loadedNetwork.activations, network.activations);
+            assert loadedNetwork.lossFunction == LossFunction.CROSS_ENTROPY;
+
+            for (int i = 0; i < network.weights.length; ++i) {
+                assert Arrays.equals(loadedNetwork.weights[i].values, network.weights[i].values);
+                assert Arrays.equals(loadedNetwork.biases[i].values, network.biases[i].values);
+            }
+
+            // Cut file isn't loaded
+            Files.write(file, Arrays.copyOf(Files.readAllBytes(file), (int)Files.size(file) - 8));
+            boolean isCutFileLoaded = true;
+
+            try {
+                NeuralNetwork.load(file.toString());
+            } catch (IOException e) {
+                isCutFileLoaded = false;
+            }
+
+            assert !isCutFileLoaded;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testFunctionOfWholeLayerIsOnlyInOutputLayerWithCrossEntropy() {
+        assert !Softmax.SOFTMAX.isElementWise() && ActivationFunctionsEnum.RELU.isElementWise() && Sigmoid.EXACT.isElementWise();
+        assert ActivationFunction.valueOf("SOFTMAX") == Softmax.SOFTMAX;
+
+        ActivationFunction[][] badActivations = {
+                {Softmax.SOFTMAX, Softmax.SOFTMAX},
+                {ActivationFunctionsEnum.RELU, Softmax.SOFTMAX},
+                {ActivationFunctionsEnum.RELU, Sigmoid.EXACT}
+        };
+        LossFunction[] badLossFunctions = {LossFunction.CROSS_ENTROPY, LossFunction.SQUARED_ERROR, LossFunction.CROSS_ENTROPY};
+
+        for (int i = 0; i < badActivations.length; ++i) {
+            boolean isNetworkCreated = true;
+
+            try {
+                new NeuralNetwork(3, 2, new int[] {4}, badActivations[i], badLossFunctions[i]);
+            } catch (IllegalArgumentException e) {
+                isNetworkCreated = false;
+            }
+
+            assert !isNetworkCreated;
+        }
+    }
+
+    @Test
+    void testCorruptedNetworkFileIsNotLoaded() throws IOException {
+        NeuralNetwork network = new NeuralNetwork(6, 3, new int[] {5, 4},
+                new ActivationFunction[] {ActivationFunctionsEnum.LEAKY_RELU, Sigmoid.TABLE, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        Path file = Files.createTempFile("network", ".bin");
+
+        try {
+            network.save(file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+
+            // Input size, hidden layers quantity, length of first function name, first byte of it and of loss function name
+            int[] corruptedPositions = {8, 16, 28, 32, 66};
+            int[] corruptedValues = {-6, -1, Integer.MAX_VALUE, 'Z', 'Z'};
+
+            for (int i = 0; i < corruptedPositions.length; ++i) {
+                ByteBuffer corruptedBytes = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+
+                if (corruptedValues[i] == 'Z') {
+                    corruptedBytes.put(corruptedPositions[i], (byte)'Z');
+                } else {
+                    corruptedBytes.putInt(corruptedPositions[i], corruptedValues[i]);
+                }
+
+                Files.write(file, corruptedBytes.array());
+                boolean isCorruptedFileLoaded = true;
+
+                try {
+                    NeuralNetwork.load(file.toString());
+                } catch (IOException e) {
+                    isCorruptedFileLoaded = false;
+                }
+
+                assert !isCorruptedFileLoaded;
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.company.model;
+
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Softmax;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.QuantizedNeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.trainer.QuantizationReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class QuantizedNeuralNetworkTest {
+    @Test
+    void testMatrixQuantization() {
+        Matrix matrix = new RandomMatrix(9, 37);
+        QuantizedMatrix quantized = new QuantizedMatrix(matrix);
+        Matrix dequantized = quantized.toMatrix();
+
+        for (int i = 0; i < matrix.N; ++i) {
+            for (int j = 0; j < matrix.M; ++j) {
+                assert Math.abs(dequantized.get(i, j) - matrix.get(i, j)) <= quantized.rowsScales[i] / 2 + 1e-9;
+            }
+        }
+
+        // Integer product of quantized values is close to product of original ones
+        Matrix vector = new RandomMatrix(37, 1);
+        float vectorScale = QuantizedMatrix.scaleOf(1);
+        byte[] quantizedVector = QuantizedMatrix.quantize(new FloatMatrix(vector), vectorScale, new byte[37]);
+        FloatMatrix product = quantized.multiplyVectorInto(quantizedVector, vectorScale, new FloatMatrix(9, 1));
+        Matrix expectedProduct = matrix.multiply(vector);
+
+        for (int i = 0; i < matrix.N; ++i) {
+            assert Math.abs(product.get(i, 0) - expectedProduct.get(i, 0)) < 0.05;
+        }
+    }
+
+    @Test
+    void testOutputsAreCloseToOriginal() {
+        NeuralNetwork network = new NeuralNetwork(30, 4, new int[] {20, 12},
+                new ActivationFunction[] {ActivationFunctionsEnum.RELU, ActivationFunctionsEnum.TANH, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int t = 0; t < 200; ++t) {
+            double[] input = new double[30];
+
+            for (int j = 0; j < input.length; ++j) {
+                input[j] = Math.random();
+            }
+
+            double[] correctOutput = new double[4];
+            correctOutput[t % 4] = 1;
+            tests.add(new TestSet.Test(input, correctOutput));
+        }
+
+        TestSet testSet = new TestSet(tests);
+        QuantizedNeuralNetwork quantizedNetwork = QuantizedNeuralNetwork.quantize(network, testSet.sampleInputs(100));
+        QuantizationReport report = QuantizationReport.of(network, quantizedNetwork, testSet);
+
+        assert report.getMaxOutputDifference() < 0.05;
+        assert report.getAgreement() > 0.9;
+        assert report.quantizedBytesCount * 4 < report.originalBytesCount;
+        assert report.originalEvaluation.getTestsCount() == 200 && report.quantizedEvaluation.getTestsCount() == 200;
+
+        Matrix inputs = testSet.sampleInputs(10);
+        Matrix outputs = quantizedNetwork.calcOutputBy(inputs);
+        double[] output = quantizedNetwork.calcOutputBy(inputs.row(3).toArray());
+
+        for (int k = 0; k < output.length; ++k) {
+            assert output[k] == outputs.get(3, k);
+        }
+    }
+}
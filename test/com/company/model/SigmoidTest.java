@@ -0,0 +1,40 @@
+package com.company.model;
+
+import com.company.model.activation.Sigmoid;
+import org.junit.jupiter.api.Test;
+
+class SigmoidTest {
+
+    @Test
+    void testSigmoidApproximationsErrors() {
+        double tableMaxError = 0;
+        double rationalMaxError = 0;
+
+        for (double x = -40; x <= 40; x += 0.001) {
+            double exact = 1 / (1 + Math.exp(-x));
+
+            assert Math.abs(Sigmoid.EXACT.apply(x) - exact) < 0.000000000000001;
+            tableMaxError = Math.max(tableMaxError, Math.abs(Sigmoid.TABLE.apply(x) - exact));
+            rationalMaxError = Math.max(rationalMaxError, Math.abs(Sigmoid.RATIONAL.apply(x) - exact));
+        }
+
+        assert tableMaxError < 0.0000008;
+        assert rationalMaxError < 0.00005;
+    }
+
+    @Test
+    void testSigmoidOfMatrix() {
+        Matrix input = new Matrix(2, 3, new double[] {-3, -1, 0, 0.5, 2, 7});
+
+        for (Sigmoid sigmoid : Sigmoid.values()) {
+            Matrix output = sigmoid.apply(input, new Matrix(2, 3));
+
+            for (int i = 0; i < input.values.length; ++i) {
+                double exact = 1 / (1 + Math.exp(-input.values[i]));
+
+                assert Math.abs(output.values[i] - exact) < 0.00005;
+                assert Math.abs(sigmoid.derivativeByOutput(output.values[i]) - exact * (1 - exact)) < 0.0001;
+            }
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.company.model;
 
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Sigmoid;
+import com.company.model.activation.Softmax;
+import com.company.model.network.LossFunction;
 import com.company.model.network.NeuralNetwork;
 import com.company.train.TestSet;
 import com.company.train.trainer.Trainer;
 import com.company.train.gradient.BiasesOutputErrorGradient;
+import com.company.train.gradient.OutputErrorGradient;
 import com.company.train.gradient.WeightsOutputErrorGradient;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 class WeightsGradientTest {
     @Test
     void testGradientCalculating() {
@@ -17,7 +25,83 @@ class WeightsGradientTest {
         WeightsOutputErrorGradient weightsOutputErrorGradient = new WeightsOutputErrorGradient(network, new TestSet.Test(new double[] {1, 0, 1}, new double[] {0.866, 0.688}));
         BiasesOutputErrorGradient biasesOutputErrorGradient = new BiasesOutputErrorGradient(network, new TestSet.Test(new double[] {1, 0, 1}, new double[] {0.866, 0.688}));
 
-        assert Trainer.calcOutputError(weightsOutputErrorGradient.getOutputErrorGradient().values[0], new double[30]) < 0.000001;
-        assert Trainer.calcOutputError(biasesOutputErrorGradient.getOutputErrorGradient().values[0], new double[30]) < 0.000001;
+        assert Trainer.calcOutputError(weightsOutputErrorGradient.getOutputErrorGradient().values, new double[30]) < 0.000001;
+        assert Trainer.calcOutputError(biasesOutputErrorGradient.getOutputErrorGradient().values, new double[30]) < 0.000001;
+    }
+
+    @Test
+    void testGradientMatchesFiniteDifferences() {
+        NeuralNetwork network = new NeuralNetwork(3, 2, new int[] {2, 4});
+        network.weights = new Matrix[] {new Matrix(2, 3, new double[] {-1, 0, 1, -2, 0, 2}), new Matrix(4, 2, new double[] {0, 1, 1, 0, 1, 1, 0, 0}), new Matrix(2, 4, new double[] {-2, -1, 1, 2, -4, -3, 3, 4})};
+        network.biases = new Matrix[] {new Matrix(2, 1, new double[] {1, -1}), new Matrix(4, 1, new double[] {-1, 0, 0, 1}), new Matrix(2, 1, new double[] {1, -1})};
+        TestSet.Test test = new TestSet.Test(new double[] {1, 0, 1}, new double[] {0, 1});
+
+        assertGradientMatchesFiniteDifferences(network, test);
+    }
+
+    @Test
+    void testGradientMatchesFiniteDifferencesForOtherActivations() {
+        ActivationFunction[] activations = {ActivationFunctionsEnum.TANH, ActivationFunctionsEnum.LEAKY_RELU, Softmax.SOFTMAX};
+        NeuralNetwork network = new NeuralNetwork(4, 3, new int[] {5, 6}, activations, LossFunction.CROSS_ENTROPY);
+        TestSet.Test test = new TestSet.Test(new double[] {1, 0.5, 0, 1}, new double[] {0, 1, 0});
+
+        assertGradientMatchesFiniteDifferences(network, test);
+
+        ActivationFunction[] mixedActivations = {ActivationFunctionsEnum.RELU, Sigmoid.EXACT, Sigmoid.EXACT};
+        network = new NeuralNetwork(4, 3, new int[] {5, 6}, mixedActivations, LossFunction.SQUARED_ERROR);
+
+        assertGradientMatchesFiniteDifferences(network, test);
+    }
+
+    private static void assertGradientMatchesFiniteDifferences(NeuralNetwork network, TestSet.Test test) {
+        double[] weightsGradient = new WeightsOutputErrorGradient(network, test).getOutputErrorGradient().values;
+        double[] biasesGradient = new BiasesOutputErrorGradient(network, test).getOutputErrorGradient().values;
+
+        final double h = 1e-6;
+        int weightIndex = 0;
+
+        for (Matrix weights : network.weights) {
+            for (int j = 0; j < weights.N; ++j) {
+                for (int k = 0; k < weights.M; ++k, ++weightIndex) {
+                    double value = weights.get(j, k);
+                    weights.set(j, k, value + h);
+                    double rightError = network.lossFunction.calcError(network.calcOutputBy(test.input()), test.correctOutput());
+                    weights.set(j, k, value - h);
+                    double leftError = network.lossFunction.calcError(network.calcOutputBy(test.input()), test.correctOutput());
+                    weights.set(j, k, value);
+
+                    assert Math.abs((rightError - leftError) / (2 * h) - weightsGradient[weightIndex]) < 0.000001;
+                }
+            }
+        }
+
+        int biasIndex = 0;
+
+        for (Matrix biases : network.biases) {
+            for (int j = 0; j < biases.N; ++j, ++biasIndex) {
+                double value = biases.get(j, 0);
+                biases.set(j, 0, value + h);
+                double rightError = network.lossFunction.calcError(network.calcOutputBy(test.input()), test.correctOutput());
+                biases.set(j, 0, value - h);
+                double leftError = network.lossFunction.calcError(network.calcOutputBy(test.input()), test.correctOutput());
+                biases.set(j, 0, value);
+
+                assert Math.abs((rightError - leftError) / (2 * h) - biasesGradient[biasIndex]) < 0.000001;
+            }
+        }
+
+        assert weightIndex == weightsGradient.length && biasIndex == biasesGradient.length;
+    }
+
+    @Test
+    void testCombinedGradientCalculating() {
+        NeuralNetwork network = new NeuralNetwork(5, 3, new int[] {4, 6});
+        TestSet.Test test = new TestSet.Test(new double[] {1, 0, 0.5, 0, 1}, new double[] {0, 1, 0});
+
+        OutputErrorGradient gradient = new OutputErrorGradient(network, test);
+
+        assert Arrays.equals(gradient.getWeightsGradient().values, new WeightsOutputErrorGradient(network, test).getOutputErrorGradient().values);
+        assert Arrays.equals(gradient.getBiasesGradient().values, new BiasesOutputErrorGradient(network, test).getOutputErrorGradient().values);
+        assert Math.abs(gradient.getOutputError() - Trainer.calcOutputError(network.calcOutputBy(test.input()), test.correctOutput())) < 0.000001;
     }
-}
\ No newline at end of file
+}
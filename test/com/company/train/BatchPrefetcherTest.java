@@ -0,0 +1,59 @@
+package com.company.train;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class BatchPrefetcherTest {
+    @Test
+    void testEveryPassPacksEveryTestOnce() {
+        // Input of test i is (i, -i), output is (2 * i)
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int i = 0; i < 23; ++i) {
+            tests.add(new TestSet.Test(new double[] {i, -i}, new double[] {2 * i}));
+        }
+
+        try (BatchPrefetcher prefetcher = new BatchPrefetcher(new TestSet(tests), 5, 2, 2, 1)) {
+            for (int pass = 0; pass < 3; ++pass) {
+                boolean[] isTestPacked = new boolean[23];
+                int testsCount = 0;
+
+                prefetcher.startPass();
+
+                for (BatchPrefetcher.Batch batch = prefetcher.nextBatch(); batch != null; batch = prefetcher.nextBatch()) {
+                    assert batch.size() == 5 || testsCount == 20;
+
+                    for (int row = 0; row < batch.size(); ++row) {
+                        int testIndex = (int)batch.inputs.get(row, 0);
+
+                        assert !isTestPacked[testIndex];
+                        assert batch.inputs.get(row, 1) == -testIndex;
+                        assert batch.correctOutputs.get(row, 0) == 2 * testIndex;
+
+                        isTestPacked[testIndex] = true;
+                        ++testsCount;
+                    }
+
+                    prefetcher.release(batch);
+                }
+
+                assert testsCount == 23;
+            }
+        }
+    }
+
+    @Test
+    void testProducerExceptionComesToTrainer() {
+        List<TestSet.Test> tests = List.of(new TestSet.Test(new double[] {1, 2, 3}, new double[] {1}));
+
+        try (BatchPrefetcher prefetcher = new BatchPrefetcher(new TestSet(tests), 5, 2, 2, 1)) {
+            prefetcher.startPass();
+            prefetcher.nextBatch();
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("batch packing");
+        }
+    }
+}
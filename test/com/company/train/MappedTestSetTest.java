@@ -0,0 +1,100 @@
+package com.company.train;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+class MappedTestSetTest {
+    @Test
+    void testMappedTestsEqualCsvTests() throws IOException {
+        Path csv = Files.createTempFile("digits", ".csv");
+        Path binary = Files.createTempFile("digits", ".bin");
+
+        try {
+            Files.writeString(csv, "3,0,255,17,128\n7,1,2,3,4\n\n0,255,255,0,0\n");
+            MappedTestSet.convertDigitsImages(csv.toString(), binary.toString());
+
+            TestSet csvTestSet = new TestSet(csv.toString());
+            MappedTestSet mappedTestSet = new MappedTestSet(binary.toString());
+
+            assert mappedTestSet.size == 3 && csvTestSet.size == 3;
+            assert mappedTestSet.inputSize == 4 && mappedTestSet.outputSize == 10;
+
+            // Both sets are shuffled, so tests are matched by digits
+            Map<Integer, TestSet.Test> csvTests = new HashMap<>();
+
+            while (csvTestSet.hasNextTest()) {
+                TestSet.Test test = csvTestSet.nextTest();
+                csvTests.put(digitOf(test), test);
+            }
+
+            for (int pass = 0; pass < 2; ++pass) {
+                mappedTestSet.clearTestsQueue();
+
+                while (mappedTestSet.hasNextTest()) {
+                    TestSet.Test test = mappedTestSet.nextTest();
+                    TestSet.Test csvTest = csvTests.get(digitOf(test));
+
+                    for (int i = 0; i < test.input().length; ++i) {
+                        assert Math.abs(test.input()[i] - csvTest.input()[i]) < 1e-7;
+                    }
+
+                    for (int i = 0; i < test.correctOutput().length; ++i) {
+                        assert test.correctOutput()[i] == csvTest.correctOutput()[i];
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Test
+    void testNotTestSetFileIsRejected() throws IOException {
+        Path file = Files.createTempFile("digits", ".bin");
+
+        try {
+            Files.writeString(file, "3,0,255,17,128,0,0,0,0,0\n");
+            new MappedTestSet(file.toString());
+            assert false;
+        } catch (IOException e) {
+            assert e.getMessage().contains("isn't test set file");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testHeaderWithNegativeCountIsRejected() throws IOException {
+        Path file = Files.createTempFile("digits", ".bin");
+        ByteBuffer header = ByteBuffer.allocate(MappedTestSet.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MappedTestSet.MAGIC).putInt(MappedTestSet.VERSION).putInt(1).putInt(-4).putInt(10);
+
+        try {
+            Files.write(file, header.array());
+            new MappedTestSet(file.toString());
+            assert false;
+        } catch (IOException e) {
+            assert e.getMessage().contains("negative");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int digitOf(TestSet.Test test) {
+        for (int i = 0; i < test.correctOutput().length; ++i) {
+            if (test.correctOutput()[i] == 1) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
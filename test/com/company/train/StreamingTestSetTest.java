@@ -0,0 +1,59 @@
+package com.company.train;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class StreamingTestSetTest {
+    @Test
+    void testEveryPassGivesEveryTestOnce() throws IOException {
+        Path csv = Files.createTempFile("digits", ".csv");
+        Path binary = Files.createTempFile("digits", ".bin");
+
+        try {
+            // First pixel of test i is i, so tests are recognized by it
+            StringBuilder lines = new StringBuilder();
+
+            for (int i = 0; i < 53; ++i) {
+                lines.append(i % 10).append(',').append(i).append(",0,255\n");
+            }
+
+            Files.writeString(csv, lines);
+            MappedTestSet.convertDigitsImages(csv.toString(), binary.toString());
+
+            try (StreamingTestSet testSet = new StreamingTestSet(binary.toString(), 4, 7)) {
+                assert testSet.size == 53;
+
+                boolean isOrderChanged = false;
+
+                for (int pass = 0; pass < 3; ++pass) {
+                    testSet.clearTestsQueue();
+
+                    boolean[] isTestGiven = new boolean[53];
+                    int testsCount = 0;
+
+                    while (testSet.hasNextTest()) {
+                        TestSet.Test test = testSet.nextTest();
+                        int testIndex = (int)Math.round(test.input()[0] * 255);
+
+                        assert !isTestGiven[testIndex];
+                        assert test.correctOutput()[testIndex % 10] == 1;
+
+                        isOrderChanged |= testIndex != testsCount;
+                        isTestGiven[testIndex] = true;
+                        ++testsCount;
+                    }
+
+                    assert testsCount == 53;
+                }
+
+                assert isOrderChanged;
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(binary);
+        }
+    }
+}
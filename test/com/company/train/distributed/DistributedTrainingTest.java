@@ -0,0 +1,17 @@
+package com.company.train.distributed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class DistributedTrainingTest {
+    @Test
+    void testWorkersGetOnlyNeededJvmOptions() {
+        List<String> options = DistributedTraining.workerJvmOptions(List.of("-agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=5005",
+                "--add-modules=jdk.incubator.vector", "-Xmx2g", "-ea", "-Dbackpropagation.kernels=scalar", "-javaagent:profiler.jar",
+                "--add-modules", "jdk.httpserver", "-XX:+HeapDumpOnOutOfMemoryError"));
+
+        assert options.equals(List.of("--add-modules=jdk.incubator.vector", "-Xmx2g", "-ea", "-Dbackpropagation.kernels=scalar",
+                "--add-modules", "jdk.httpserver"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.model.network.NeuralNetworkFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+class CheckpointWriterTest {
+    @Test
+    void testLastCheckpointsAreRetained() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoints");
+        NeuralNetwork network = new NeuralNetwork(5, 3, new int[] {4});
+
+        try (CheckpointWriter writer = new CheckpointWriter(directory.toString(), 2, 2)) {
+            for (int epoch = 1; epoch <= 6; ++epoch) {
+                network.weights[0].set(0, 0, epoch);
+                writer.onEpoch(network, epoch);
+            }
+        }
+
+        List<Path> files;
+
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.sorted().toList();
+        }
+
+        // Checkpoint of epoch 2 may be replaced by later one before it's written, so only the last two are checked
+        assert files.size() == 2 || files.size() == 1;
+        assert files.getLast().getFileName().toString().equals("checkpoint-000006.bin");
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(files.getLast())).order(ByteOrder.LITTLE_ENDIAN);
+
+        assert file.capacity() == NeuralNetworkFormat.sizeOf(network);
+        assert file.getInt(0) == NeuralNetworkFormat.MAGIC && file.getInt(4) == NeuralNetworkFormat.VERSION;
+        assert file.getInt(8) == 5 && file.getInt(12) == 3 && file.getInt(16) == 1 && file.getInt(20) == 4;
+
+        // Parameters are at the end of file, first of them is weight (0, 0)
+        int parametersCount = 4 * 5 + 4 + 3 * 4 + 3;
+        assert file.getDouble(file.capacity() - parametersCount * Double.BYTES) == 6;
+
+        for (Path path : files) {
+            Files.delete(path);
+        }
+
+        Files.delete(directory);
+    }
+
+    @Test
+    void testEpochsAfterCloseAreIgnored() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoints");
+        NeuralNetwork network = new NeuralNetwork(5, 3, new int[] {4});
+        CheckpointWriter writer = new CheckpointWriter(directory.toString(), 1, 2);
+
+        writer.onEpoch(network, 1);
+        writer.close();
+        writer.onEpoch(network, 2);
+
+        assert writer.getLastFile().getFileName().toString().equals("checkpoint-000001.bin");
+
+        Files.delete(writer.getLastFile());
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,87 @@
+package com.company.train.trainer;
+
+import com.company.model.activation.ActivationFunction;
+import com.company.model.activation.ActivationFunctionsEnum;
+import com.company.model.activation.Softmax;
+import com.company.model.network.LossFunction;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class EvaluationTest {
+    @Test
+    void testParallelEvaluationEqualsSequentialOne() {
+        Random random = new Random(17);
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int i = 0; i < 1000; ++i) {
+            double[] correctOutput = new double[3];
+            correctOutput[random.nextInt(3)] = 1;
+            tests.add(new TestSet.Test(new double[] {random.nextDouble(), random.nextDouble(), random.nextDouble(), random.nextDouble()}, correctOutput));
+        }
+
+        NeuralNetwork network = new NeuralNetwork(4, 3, new int[] {5},
+                new ActivationFunction[] {ActivationFunctionsEnum.TANH, Softmax.SOFTMAX}, LossFunction.CROSS_ENTROPY);
+        TestSet testSet = new TestSet(tests);
+
+        // Cursor is in the middle of pass
+        for (int i = 0; i < 5; ++i) {
+            testSet.nextTest();
+        }
+
+        TestSet.Test nextTest = testSet.getTestAt(5);
+
+        double errorsSum = 0;
+        double maxError = 0;
+        int[] classesTestsCounts = new int[3];
+        int[] classesCorrectAnswersCounts = new int[3];
+
+        for (int i = 0; i < testSet.size; ++i) {
+            TestSet.Test test = testSet.getTestAt(i);
+            double[] output = network.calcOutputBy(test.input());
+            double error = network.lossFunction.calcError(output, test.correctOutput());
+
+            errorsSum += error;
+            maxError = Math.max(maxError, error);
+
+            int correctClass = argmax(test.correctOutput());
+            ++classesTestsCounts[correctClass];
+
+            if (argmax(output) == correctClass) {
+                ++classesCorrectAnswersCounts[correctClass];
+            }
+        }
+
+        Evaluation evaluation = Evaluation.of(network, testSet, new ForkJoinPool(3));
+
+        assert evaluation.getTestsCount() == 1000;
+        assert Math.abs(evaluation.getAverageError() - errorsSum / 1000) < 1e-9;
+        assert Math.abs(evaluation.getMaxError() - maxError) < 1e-9;
+        assert Math.abs(evaluation.getAccuracy() - (classesCorrectAnswersCounts[0] + classesCorrectAnswersCounts[1] + classesCorrectAnswersCounts[2]) / 1000.0) < 1e-12;
+
+        for (int c = 0; c < 3; ++c) {
+            assert Math.abs(evaluation.getClassAccuracy(c) - (double)classesCorrectAnswersCounts[c] / classesTestsCounts[c]) < 1e-12;
+        }
+
+        // Evaluation doesn't move cursor and doesn't shuffle tests
+        assert testSet.getCurrentTestIndex() == 4;
+        assert testSet.nextTest() == nextTest;
+    }
+
+    private static int argmax(double[] values) {
+        int maxIndex = 0;
+
+        for (int i = 1; i < values.length; ++i) {
+            if (values[i] > values[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+
+        return maxIndex;
+    }
+}
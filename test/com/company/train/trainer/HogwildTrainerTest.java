@@ -0,0 +1,45 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class HogwildTrainerTest {
+    @Test
+    void testLockFreeTrainingDecreasesError() {
+        assertTrainingDecreasesError(HogwildTrainer.Synchronization.LOCK_FREE);
+    }
+
+    @Test
+    void testLayerLocksTrainingDecreasesError() {
+        assertTrainingDecreasesError(HogwildTrainer.Synchronization.LAYER_LOCKS);
+    }
+
+    // Network learns, whether most of 4 bits are set
+    private static void assertTrainingDecreasesError(HogwildTrainer.Synchronization synchronization) {
+        List<TestSet.Test> tests = TrainerTests.createMajorityTests();
+        TestSet testSet = new TestSet(tests);
+        HogwildTrainer closedTrainer;
+
+        try (HogwildTrainer trainer = new HogwildTrainer(new NeuralNetwork(4, 1, new int[] {6}), testSet, new TrainerOptions(0.5, 0.3, 1, 1, 0, 0, 4), synchronization)) {
+            NeuralNetwork network = trainer.network;
+            double initialError = TrainerTests.calcAverageError(network, tests);
+
+            for (int epoch = 0; epoch < 300; ++epoch) {
+                network = trainer.trainEpoch(network);
+            }
+
+            double finalError = TrainerTests.calcAverageError(network, tests);
+
+            assert finalError < initialError / 2;
+            assert finalError < 0.05;
+
+            closedTrainer = trainer;
+        }
+
+        // Trainer created its pool, so it shut it down
+        assert closedTrainer.getEvaluationPool().isShutdown();
+    }
+}
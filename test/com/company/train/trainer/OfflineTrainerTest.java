@@ -0,0 +1,101 @@
+package com.company.train.trainer;
+
+import com.company.model.Precision;
+import com.company.model.network.NeuralNetwork;
+import com.company.train.BatchPrefetcher;
+import com.company.train.TestSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+class OfflineTrainerTest {
+    @Test
+    void testTrainingDecreasesError() {
+        assertTrainingDecreasesError(Precision.DOUBLE);
+    }
+
+    @Test
+    void testSinglePrecisionTrainingDecreasesError() {
+        assertTrainingDecreasesError(Precision.FLOAT);
+    }
+
+    private static void assertTrainingDecreasesError(Precision precision) {
+        // Network learns, whether most of 4 bits are set
+        List<TestSet.Test> tests = TrainerTests.createMajorityTests();
+
+        TrainerOptions options = new TrainerOptions(2, 0.5, 1, 4, 0, 0, 2);
+
+        try (ForkJoinPool pool = new ForkJoinPool(options.parallelism())) {
+            try (OfflineTrainer trainer = new OfflineTrainer(new NeuralNetwork(4, 1, new int[] {6}), new TestSet(tests), options,
+                    pool, OfflineTrainer.DEFAULT_PREFETCHED_BATCHES_COUNT, precision)) {
+                NeuralNetwork network = trainer.network;
+                double initialError = TrainerTests.calcAverageError(network, tests);
+
+                for (int epoch = 0; epoch < 300; ++epoch) {
+                    network = trainer.trainEpoch(network);
+                }
+
+                double finalError = TrainerTests.calcAverageError(network, tests);
+
+                assert finalError < initialError / 2;
+                assert finalError < 0.05;
+            }
+
+            // Given pool stays usable
+            assert !pool.isShutdown();
+        }
+    }
+
+    @Test
+    void testEpochAfterFailedBatchTrainsOwnBatches() {
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int t = 0; t < 20; ++t) {
+            tests.add(new TestSet.Test(new double[] {t % 2, t % 3}, new double[] {t % 2}));
+        }
+
+        TrainerOptions options = new TrainerOptions(1, 0, 1, 4, 0, 0, 1);
+        int[] trainedTestsCount = new int[1];
+        boolean[] isFailing = {true};
+
+        // Second batch of first epoch fails
+        OfflineTrainer closedTrainer;
+
+        try (OfflineTrainer trainer = new OfflineTrainer(new NeuralNetwork(2, 1, new int[] {3}), new TestSet(tests), options) {
+            @Override
+            void trainBatch(NeuralNetwork network, BatchPrefetcher.Batch batch) {
+                if (isFailing[0] && trainedTestsCount[0] > 0) {
+                    isFailing[0] = false;
+                    throw new IllegalStateException("Batch failed.");
+                }
+
+                trainedTestsCount[0] += batch.size();
+                super.trainBatch(network, batch);
+            }
+        }) {
+            boolean isThrown = false;
+
+            try {
+                trainer.trainEpoch(trainer.network);
+            } catch (IllegalStateException e) {
+                isThrown = true;
+            }
+
+            assert isThrown;
+
+            for (int epoch = 0; epoch < 3; ++epoch) {
+                trainedTestsCount[0] = 0;
+                trainer.trainEpoch(trainer.network);
+
+                assert trainedTestsCount[0] == tests.size();
+            }
+
+            closedTrainer = trainer;
+        }
+
+        // Trainer created its pool, so it shut it down
+        assert closedTrainer.getEvaluationPool().isShutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import com.company.train.distributed.GradientWorker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+class ParameterServerTrainerTest {
+    @Test
+    void testWorkersTrainingDecreasesError() throws IOException, InterruptedException {
+        // Network learns, whether most of 4 bits are set, every worker has every second test
+        List<TestSet.Test> tests = TrainerTests.createMajorityTests();
+        List<List<TestSet.Test>> shards = List.of(new ArrayList<>(), new ArrayList<>());
+
+        for (int t = 0; t < tests.size(); ++t) {
+            shards.get(t % 2).add(tests.get(t));
+        }
+
+        List<Thread> workers = new ArrayList<>();
+
+        try (ParameterServerTrainer trainer = new ParameterServerTrainer(new NeuralNetwork(4, 1, new int[] {6}), new TestSet(tests), new TrainerOptions(2, 0.5, 1, 4, 0, 0), 0, 2)) {
+            for (List<TestSet.Test> shard : shards) {
+                workers.add(Thread.ofPlatform().start(new GradientWorker("localhost", trainer.getPort(), new TestSet(shard))));
+            }
+
+            NeuralNetwork network = trainer.network;
+            double initialError = TrainerTests.calcAverageError(network, tests);
+
+            for (int epoch = 0; epoch < 300; ++epoch) {
+                network = trainer.trainEpoch(network);
+            }
+
+            double finalError = TrainerTests.calcAverageError(network, tests);
+
+            assert finalError < initialError / 2;
+            assert finalError < 0.05;
+            assert trainer.getLastSamplesPerSecond() > 0;
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixture of trainers tests
+final class TrainerTests {
+    private TrainerTests() {
+    }
+
+    // Network learns, whether most of 4 bits are set. Test of mask m is m-th test
+    static List<TestSet.Test> createMajorityTests() {
+        List<TestSet.Test> tests = new ArrayList<>();
+
+        for (int mask = 0; mask < 16; ++mask) {
+            double[] input = new double[4];
+            int bitsCount = 0;
+
+            for (int j = 0; j < 4; ++j) {
+                input[j] = (mask >> j) & 1;
+                bitsCount += (mask >> j) & 1;
+            }
+
+            tests.add(new TestSet.Test(input, new double[] {bitsCount > 2 ? 1 : 0}));
+        }
+
+        return tests;
+    }
+
+    // Average loss of network by tests
+    static double calcAverageError(NeuralNetwork network, List<TestSet.Test> tests) {
+        double error = 0;
+
+        for (TestSet.Test test : tests) {
+            error += network.lossFunction.calcError(network.calcOutputBy(test.input()), test.correctOutput());
+        }
+
+        return error / tests.size();
+    }
+}
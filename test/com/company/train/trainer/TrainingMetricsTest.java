@@ -0,0 +1,81 @@
+package com.company.train.trainer;
+
+import com.company.model.network.NeuralNetwork;
+import com.company.train.TestSet;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+class TrainingMetricsTest {
+    @Test
+    void testMetricsOfEpochArePublishedByJmx() throws JMException {
+        List<TestSet.Test> tests = TrainerTests.createMajorityTests();
+
+        // Any error is acceptable, so training ends after first epoch
+        TrainerOptions options = new TrainerOptions(2, 0.5, 5, 4, 1, 1, 2);
+        TrainingMetrics metrics = new TrainingMetrics();
+        ObjectName name = metrics.register("test");
+
+        try (OfflineTrainer trainer = new OfflineTrainer(new NeuralNetwork(4, 1, new int[] {6}), new TestSet(tests), options)) {
+            trainer.addTrainingListener(metrics);
+            trainer.trainNetwork();
+
+            EpochMetrics epoch = metrics.getLastEpoch();
+
+            assert epoch.epoch() == 1;
+            assert epoch.testsCount() == 16;
+            assert epoch.getPhaseNanos(TrainingPhase.GRADIENT) > 0;
+            assert epoch.getPhaseNanos(TrainingPhase.EVALUATION) > 0;
+            assert epoch.getPhaseNanos(TrainingPhase.CHECKPOINT) == 0;
+            assert epoch.getPhaseNanos(TrainingPhase.GRADIENT) + epoch.getPhaseNanos(TrainingPhase.EVALUATION) <= epoch.durationNanos();
+            assert epoch.getTestsPerSecond() > 0;
+
+            long batchesCount = 0;
+
+            for (long bucketCount : metrics.getBatchLatencyHistogram()) {
+                batchesCount += bucketCount;
+            }
+
+            assert batchesCount == 4;
+            assert metrics.getBatchLatencyP50Micros() <= metrics.getBatchLatencyP99Micros();
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            assert (Long)server.getAttribute(name, "EpochsCount") == 1;
+            assert (Long)server.getAttribute(name, "BatchesCount") == 4;
+            assert (Long)server.getAttribute(name, "TestsCount") == 16;
+            assert (Double)server.getAttribute(name, "TotalGradientMillis") > 0;
+        } finally {
+            metrics.unregister();
+        }
+
+        assert !ManagementFactory.getPlatformMBeanServer().isRegistered(name);
+    }
+
+    @Test
+    void testLatencyBucketsArePowersOfTwo() {
+        assert TrainingMetrics.bucketOf(0) == 0;
+        assert TrainingMetrics.bucketOf(1) == 0;
+        assert TrainingMetrics.bucketOf(2) == 1;
+        assert TrainingMetrics.bucketOf(3) == 2;
+        assert TrainingMetrics.bucketOf(4) == 2;
+        assert TrainingMetrics.bucketOf(1000) == 10;
+        assert TrainingMetrics.bucketOf(Long.MAX_VALUE) == TrainingMetrics.BUCKETS_COUNT - 1;
+
+        TrainingMetrics metrics = new TrainingMetrics();
+
+        for (int i = 0; i < 99; ++i) {
+            metrics.onBatch(1, 3_000);
+        }
+
+        metrics.onBatch(1, 1_000_000);
+
+        assert metrics.getBatchLatencyP50Micros() == 4;
+        assert metrics.getBatchLatencyP99Micros() == 4;
+        assert metrics.getBatchLatencyPercentileMicros(100) == 1024;
+    }
+}